@@ -0,0 +1,36 @@
+package com.bwagih.orderservice.benchmark;
+
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import com.bwagih.orderservice.domain.order.Order;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.presentation.dots.OrderDTO;
+import org.bson.types.ObjectId;
+
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static String orderId() {
+        return new ObjectId().toHexString();
+    }
+
+    static OrderDTO orderDTO() {
+        return OrderDTO.builder()
+                .customerName("Jane Doe")
+                .productName("Mechanical Keyboard")
+                .quantity(3)
+                .build();
+    }
+
+    static Order order() {
+        return Order.builder()
+                .orderId(orderId())
+                .customerName("Jane Doe")
+                .productName("Mechanical Keyboard")
+                .quantity(3L)
+                .status(OrderStatus.PROCESSING)
+                .sagaStatus(SagaStatus.IN_PROGRESS)
+                .build();
+    }
+}
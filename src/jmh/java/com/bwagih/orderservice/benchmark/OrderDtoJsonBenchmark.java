@@ -0,0 +1,44 @@
+package com.bwagih.orderservice.benchmark;
+
+import com.bwagih.orderservice.presentation.dots.OrderDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderDtoJsonBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private OrderDTO orderDTO;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        writer = objectMapper.writerFor(OrderDTO.class);
+        reader = objectMapper.readerFor(OrderDTO.class);
+        orderDTO = BenchmarkFixtures.orderDTO();
+        orderDTO.setOrderId(BenchmarkFixtures.orderId());
+        json = writer.writeValueAsBytes(orderDTO);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(orderDTO);
+    }
+
+    @Benchmark
+    public OrderDTO deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
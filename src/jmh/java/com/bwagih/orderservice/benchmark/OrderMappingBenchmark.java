@@ -0,0 +1,60 @@
+package com.bwagih.orderservice.benchmark;
+
+import com.bwagih.orderservice.application.order.OrderMapper;
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import com.bwagih.orderservice.domain.order.Order;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrder;
+import com.bwagih.orderservice.presentation.dots.OrderDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMappingBenchmark {
+
+    private OrderDTO orderDTO;
+    private Order order;
+    private MongoOrder mongoOrder;
+
+    @Setup
+    public void setUp() {
+        orderDTO = BenchmarkFixtures.orderDTO();
+        order = BenchmarkFixtures.order();
+        mongoOrder = MongoOrder.fromDomain(order);
+    }
+
+    @Benchmark
+    public Order dtoToEntity() {
+        return OrderMapper.INSTANCE.toEntity(orderDTO);
+    }
+
+    @Benchmark
+    public OrderDTO entityToDto() {
+        return OrderMapper.INSTANCE.toDTO(order);
+    }
+
+    @Benchmark
+    public MongoOrder domainToDocument() {
+        return MongoOrder.fromDomain(order);
+    }
+
+    @Benchmark
+    public Order documentToDomain() {
+        return MongoOrder.toDomain(mongoOrder);
+    }
+
+    // the full per-order mapping chain of POST /orders
+    @Benchmark
+    public OrderDTO createOrderRoundTrip() {
+        Order entity = OrderMapper.INSTANCE.toEntity(orderDTO);
+        entity.setStatus(OrderStatus.PENDING);
+        entity.setSagaStatus(SagaStatus.INITIATED);
+        return OrderMapper.INSTANCE.toDTO(MongoOrder.toDomain(MongoOrder.fromDomain(entity)));
+    }
+}
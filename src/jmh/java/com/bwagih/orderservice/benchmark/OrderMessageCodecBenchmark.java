@@ -0,0 +1,44 @@
+package com.bwagih.orderservice.benchmark;
+
+import com.bwagih.orderservice.infrastructure.codec.CompactOrderMessageConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMessageCodecBenchmark {
+
+    @Param({"json", "compact"})
+    private String codec;
+
+    private MessageConverter converter;
+    private String orderId;
+    private Message encoded;
+
+    @Setup
+    public void setUp() {
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+        converter = "compact".equals(codec) ? new CompactOrderMessageConverter(json, true) : json;
+        orderId = BenchmarkFixtures.orderId();
+        encoded = converter.toMessage(orderId, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message encodeOrderId() {
+        return converter.toMessage(orderId, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object decodeOrderId() {
+        return converter.fromMessage(encoded);
+    }
+}
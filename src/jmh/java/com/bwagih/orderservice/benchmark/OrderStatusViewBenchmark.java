@@ -0,0 +1,126 @@
+package com.bwagih.orderservice.benchmark;
+
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrder;
+import com.bwagih.orderservice.infrastructure.order.mongo.OrderStatusView;
+import com.bwagih.orderservice.infrastructure.order.mongo.OrderStatusViewCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.bson.BsonBinaryReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.projection.EntityProjection;
+import org.springframework.data.projection.EntityProjectionIntrospector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// one page of GET /orders/status/{status}: the former interface-projection path (Document, then a
+// map-backed proxy via the entity converter) against decoding straight into OrderStatusView
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderStatusViewBenchmark {
+
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    // what OrderProjection looked like before the read path moved to OrderStatusView
+    public interface ProxyProjection {
+        String getOrderId();
+        String getCustomerName();
+        String getProductName();
+        String getStatus();
+    }
+
+    @Param({"100"})
+    private int pageSize;
+
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private MappingMongoConverter converter;
+    private EntityProjection<ProxyProjection, MongoOrder> projection;
+    private ObjectWriter writer;
+    private List<byte[]> page;
+    private List<ProxyProjection> proxies;
+    private List<OrderStatusView> views;
+
+    @Setup
+    public void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        // built the way MongoTemplate builds its introspector for as(Interface.class) queries
+        projection = EntityProjectionIntrospector.create(converter.getProjectionFactory(),
+                        EntityProjectionIntrospector.ProjectionPredicate.typeHierarchy()
+                                .and((target, underlyingType) -> !converter.getCustomConversions().isSimpleType(target)),
+                        mappingContext)
+                .introspect(ProxyProjection.class, MongoOrder.class);
+        writer = new ObjectMapper().writer();
+
+        page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            MongoOrder order = MongoOrder.fromDomain(BenchmarkFixtures.order());
+            Document document = new Document();
+            converter.write(order, document);
+            document.keySet().retainAll(List.of("_id", "customerName", "productName", "status"));
+            page.add(new RawBsonDocument(document, documentCodec).getByteBuffer().array());
+        }
+        proxies = decodeProxies();
+        views = decodeViews();
+    }
+
+    @Benchmark
+    public List<ProxyProjection> decodeProxies() {
+        List<ProxyProjection> decoded = new ArrayList<>(page.size());
+        for (byte[] bson : page) {
+            Document document = documentCodec.decode(reader(bson), DECODER_CONTEXT);
+            decoded.add(converter.project(projection, document));
+        }
+        return decoded;
+    }
+
+    @Benchmark
+    public List<OrderStatusView> decodeViews() {
+        List<OrderStatusView> decoded = new ArrayList<>(page.size());
+        for (byte[] bson : page) {
+            decoded.add(OrderStatusViewCodec.INSTANCE.decode(reader(bson), DECODER_CONTEXT));
+        }
+        return decoded;
+    }
+
+    @Benchmark
+    public byte[] serializeProxies() throws IOException {
+        return writer.writeValueAsBytes(proxies);
+    }
+
+    @Benchmark
+    public byte[] serializeViews() throws IOException {
+        return writer.writeValueAsBytes(views);
+    }
+
+    // the whole per-page read path, BSON in and JSON out
+    @Benchmark
+    public byte[] proxyPath() throws IOException {
+        return writer.writeValueAsBytes(decodeProxies());
+    }
+
+    @Benchmark
+    public byte[] viewPath() throws IOException {
+        return writer.writeValueAsBytes(decodeViews());
+    }
+
+    private static BsonBinaryReader reader(byte[] bson) {
+        return new BsonBinaryReader(ByteBuffer.wrap(bson));
+    }
+}
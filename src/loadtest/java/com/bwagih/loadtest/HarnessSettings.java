@@ -0,0 +1,58 @@
+package com.bwagih.loadtest;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Builder
+public class HarnessSettings {
+    private final int rate;
+    private final int concurrency;
+    private final int durationSeconds;
+    private final int drainTimeoutSeconds;
+    private final long processingDelayMs;
+    private final int consumers;
+    private final int prefetch;
+    private final String mongoUri;
+    private final String mongoDatabase;
+
+    public static HarnessSettings fromSystemProperties() {
+        return HarnessSettings.builder()
+                .rate(Integer.getInteger("loadtest.rate", 200))
+                .concurrency(Integer.getInteger("loadtest.concurrency", 64))
+                .durationSeconds(Integer.getInteger("loadtest.duration-seconds", 60))
+                .drainTimeoutSeconds(Integer.getInteger("loadtest.drain-timeout-seconds", 120))
+                .processingDelayMs(Long.getLong("loadtest.processing-delay-ms", 5000L))
+                .consumers(Integer.getInteger("loadtest.consumers", 10))
+                .prefetch(Integer.getInteger("loadtest.prefetch", 250))
+                .mongoUri(System.getProperty("loadtest.mongo-uri"))
+                .mongoDatabase(System.getProperty("loadtest.mongo-database", "ordermanagement-loadtest"))
+                .build();
+    }
+
+    public Map<String, Object> applicationProperties(String mongoUri) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("management.server.port", -1);
+        properties.put("spring.data.mongodb.uri", mongoUri);
+        // spring.data.mongodb.database wins over the database in the URI, and application.properties sets it
+        properties.put("spring.data.mongodb.database", mongoDatabase);
+        // the in-memory broker replaces RabbitMQ, so nothing may try to reach one
+        properties.put("rabbitmq.auto-startup", false);
+        properties.put("rabbitmq.max-consumer-count", consumers);
+        properties.put("rabbitmq.prefetch-count", prefetch);
+        properties.put("order.processing.delay-ms", processingDelayMs);
+        properties.put("outbox.relay.interval-ms", 20);
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        return "rate=" + rate + "/s concurrency=" + concurrency + " duration=" + durationSeconds + "s"
+                + " processingDelay=" + processingDelayMs + "ms consumers=" + consumers + " prefetch=" + prefetch
+                + " database=" + mongoDatabase;
+    }
+}
@@ -0,0 +1,115 @@
+package com.bwagih.loadtest;
+
+import com.bwagih.orderservice.application.order.OrderProcessor;
+import com.bwagih.orderservice.domain.MessagePublisher;
+import com.bwagih.orderservice.infrastructure.retry.OrderRetryTiers;
+import com.bwagih.orderservice.shared.Defines;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+// Stand-in for the broker: one queue for the order routing key, consumed the way the
+// listener container does it, i.e. at most consumers x prefetch unacked sagas. Retry tiers
+// are modelled like their TTL queues: the message comes back onto the order queue after the
+// tier's delay, carrying the attempt header.
+public class InMemoryOrderBroker implements MessagePublisher {
+
+    private record Delivery(String orderId, String messageId, Integer retryAttempt) {
+    }
+
+    private final String routingKey;
+    private final OrderRetryTiers retryTiers;
+    private final int consumers;
+    private final int unackedCapacity;
+    private final BlockingQueue<Delivery> queue = new LinkedBlockingQueue<>();
+    private final Semaphore unacked;
+    private final ExecutorService consumerThreads;
+    private final ScheduledExecutorService retryTimer = Executors.newSingleThreadScheduledExecutor();
+    private volatile boolean running;
+
+    public InMemoryOrderBroker(String routingKey, OrderRetryTiers retryTiers, int consumers, int prefetch) {
+        this.routingKey = routingKey;
+        this.retryTiers = retryTiers;
+        this.consumers = consumers;
+        this.unackedCapacity = consumers * prefetch;
+        this.unacked = new Semaphore(unackedCapacity);
+        this.consumerThreads = Executors.newFixedThreadPool(consumers);
+    }
+
+    @Override
+    public void publish(String exchange, String routingKey, Object message) {
+        publishAsync(exchange, routingKey, message).join();
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(String exchange, String routingKey, Object message) {
+        return publishAsync(exchange, routingKey, message, Map.of());
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(String exchange, String routingKey, Object message, Map<String, Object> headers) {
+        return publishAsync(exchange, routingKey, message, null, headers);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(String exchange, String routingKey, Object message, String messageId,
+                                                Map<String, Object> headers) {
+        Integer retryAttempt = (Integer) headers.get(Defines.MQ.RETRY_ATTEMPT_HEADER);
+        Delivery delivery = new Delivery(message.toString(), messageId, retryAttempt);
+        if (this.routingKey.equals(routingKey)) {
+            queue.add(delivery);
+            return CompletableFuture.completedFuture(null);
+        }
+        for (int tier = 0; tier < retryTiers.size(); tier++) {
+            if (retryTiers.routingKey(this.routingKey, tier).equals(routingKey)) {
+                retryTimer.schedule(() -> queue.add(delivery), retryTiers.delayMs(tier), TimeUnit.MILLISECONDS);
+                break;
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void publishBatch(String exchange, String routingKey, List<?> messages) {
+        messages.forEach(message -> publishAsync(exchange, routingKey, message));
+    }
+
+    public void start(OrderProcessor orderProcessor) {
+        running = true;
+        for (int i = 0; i < consumers; i++) {
+            consumerThreads.execute(() -> consume(orderProcessor));
+        }
+    }
+
+    public void stop() {
+        running = false;
+        retryTimer.shutdownNow();
+        consumerThreads.shutdownNow();
+    }
+
+    public int depth() {
+        return queue.size();
+    }
+
+    public int unacked() {
+        return unackedCapacity - unacked.availablePermits();
+    }
+
+    private void consume(OrderProcessor orderProcessor) {
+        try {
+            while (running) {
+                unacked.acquire();
+                Delivery delivery = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (delivery == null) {
+                    unacked.release();
+                    continue;
+                }
+                orderProcessor.processOrder(delivery.orderId(), false, delivery.messageId(), delivery.retryAttempt(), routingKey)
+                        .whenComplete((ignored, ex) -> unacked.release());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
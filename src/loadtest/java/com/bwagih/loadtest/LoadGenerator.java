@@ -0,0 +1,66 @@
+package com.bwagih.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop arrivals at a fixed rate; the concurrency limit caps outstanding POSTs.
+public class LoadGenerator {
+
+    private static final String ORDER_BODY = "{\"customerName\":\"load-%d\",\"productName\":\"harness\",\"quantity\":1}";
+
+    private final URI ordersUri;
+    private final HarnessSettings settings;
+    private final OrderCompletionTracker tracker;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    public LoadGenerator(URI ordersUri, HarnessSettings settings, OrderCompletionTracker tracker) {
+        this.ordersUri = ordersUri;
+        this.settings = settings;
+        this.tracker = tracker;
+    }
+
+    public void run() throws InterruptedException {
+        Semaphore outstanding = new Semaphore(settings.getConcurrency());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.getRate();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+        long next = System.nanoTime();
+
+        for (long sequence = 0; next < end; sequence++, next += intervalNanos) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            outstanding.acquire();
+            tracker.submitted();
+
+            long start = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(ordersUri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(ORDER_BODY.formatted(sequence)))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                    .whenComplete((response, ex) -> {
+                        outstanding.release();
+                        if (ex != null || response.statusCode() != 201) {
+                            tracker.rejected();
+                            return;
+                        }
+                        try {
+                            tracker.accepted(objectMapper.readTree(response.body()).get("orderId").asText(), start);
+                        } catch (Exception parseError) {
+                            tracker.rejected();
+                        }
+                    });
+        }
+        outstanding.acquire(settings.getConcurrency());
+    }
+}
@@ -0,0 +1,104 @@
+package com.bwagih.loadtest;
+
+import com.bwagih.orderservice.OrderServiceApplication;
+import com.bwagih.orderservice.application.order.OrderProcessor;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Runs POST /orders -> OrderService.createOrder -> outbox relay -> publisher -> OrderProcessor -> COMPLETED
+ * against an embedded mongod and an in-memory broker, and prints throughput, end-to-end latency
+ * percentiles and queue depth over time. Settings are -Dloadtest.* system properties, see HarnessSettings.
+ */
+public class LoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        HarnessSettings settings = HarnessSettings.fromSystemProperties();
+        TransitionWalker.ReachedState<RunningMongodProcess> mongod = null;
+        String mongoUri = settings.getMongoUri();
+        if (mongoUri == null) {
+            mongod = Mongod.instance().start(Version.Main.V6_0);
+            ServerAddress address = mongod.current().getServerAddress();
+            mongoUri = "mongodb://" + address.getHost() + ":" + address.getPort() + "/" + settings.getMongoDatabase();
+        }
+
+        // added ahead of application.properties; builder properties() would only be defaults underneath it
+        MapPropertySource harnessProperties = new MapPropertySource("loadtest", settings.applicationProperties(mongoUri));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderServiceApplication.class, LoadHarnessConfiguration.class)
+                .initializers(applicationContext -> {
+                    applicationContext.getEnvironment().getPropertySources().addFirst(harnessProperties);
+                    requireDatabase(settings, applicationContext.getEnvironment().getProperty("spring.data.mongodb.database"));
+                })
+                .run(args);
+        try {
+            requireDatabase(settings, context.getBean(MongoTemplate.class).getDb().getName());
+            run(context, settings);
+        } finally {
+            context.getBean(InMemoryOrderBroker.class).stop();
+            context.close();
+            if (mongod != null) {
+                mongod.close();
+            }
+        }
+    }
+
+    // never let a load run write into the application's own database
+    private static void requireDatabase(HarnessSettings settings, String database) {
+        if (!settings.getMongoDatabase().equals(database)) {
+            throw new IllegalStateException("load harness expected database " + settings.getMongoDatabase() + " but got " + database);
+        }
+    }
+
+    private static void run(ConfigurableApplicationContext context, HarnessSettings settings) throws InterruptedException {
+        String port = context.getEnvironment().getRequiredProperty("local.server.port");
+        String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+        URI ordersUri = URI.create("http://localhost:" + port + contextPath + "/orders");
+
+        InMemoryOrderBroker broker = context.getBean(InMemoryOrderBroker.class);
+        OrderCompletionTracker tracker = context.getBean(OrderCompletionTracker.class);
+        broker.start(context.getBean(OrderProcessor.class));
+
+        System.out.println("load harness: " + settings);
+        System.out.printf("%6s %10s %10s %10s %10s %11s %9s%n", "t(s)", "submitted", "accepted", "completed", "failed", "queueDepth", "unacked");
+        long startNanos = System.nanoTime();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> System.out.printf("%6d %10d %10d %10d %10d %11d %9d%n",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos),
+                tracker.getSubmitted(), tracker.getAccepted(), tracker.getCompleted(), tracker.getFailed(),
+                broker.depth(), broker.unacked()), 1, 1, TimeUnit.SECONDS);
+
+        try {
+            new LoadGenerator(ordersUri, settings, tracker).run();
+            long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.getDrainTimeoutSeconds());
+            while (tracker.getOutstanding() > 0 && System.nanoTime() < drainDeadline) {
+                Thread.sleep(100);
+            }
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        double[] latencies = tracker.latenciesMillis();
+        System.out.println();
+        System.out.printf("submitted=%d accepted=%d rejected=%d completed=%d failed=%d unfinished=%d%n",
+                tracker.getSubmitted(), tracker.getAccepted(), tracker.getRejected(),
+                tracker.getCompleted(), tracker.getFailed(), tracker.getOutstanding());
+        System.out.printf("throughput=%.1f orders/s over %.1fs%n", (tracker.getCompleted() + tracker.getFailed()) / elapsedSeconds, elapsedSeconds);
+        System.out.printf("end-to-end latency ms: p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                OrderCompletionTracker.percentile(latencies, 50), OrderCompletionTracker.percentile(latencies, 90),
+                OrderCompletionTracker.percentile(latencies, 99), OrderCompletionTracker.percentile(latencies, 99.9),
+                OrderCompletionTracker.max(latencies));
+    }
+}
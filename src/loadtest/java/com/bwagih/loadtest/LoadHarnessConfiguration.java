@@ -0,0 +1,26 @@
+package com.bwagih.loadtest;
+
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.infrastructure.retry.OrderRetryTiers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+public class LoadHarnessConfiguration {
+
+    @Bean
+    @Primary
+    public InMemoryOrderBroker inMemoryOrderBroker(RabbitMqOrderConfig rabbitMqOrderConfig,
+                                                   OrderRetryTiers orderRetryTiers,
+                                                   @Value("${rabbitmq.max-consumer-count}") int consumers,
+                                                   @Value("${rabbitmq.prefetch-count}") int prefetch) {
+        return new InMemoryOrderBroker(rabbitMqOrderConfig.getRoutingKey(), orderRetryTiers, consumers, prefetch);
+    }
+
+    @Bean
+    public OrderCompletionTracker orderCompletionTracker() {
+        return new OrderCompletionTracker();
+    }
+}
@@ -0,0 +1,84 @@
+package com.bwagih.loadtest;
+
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.domain.order.OrderStatusChangedEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OrderCompletionTracker {
+
+    private final Map<String, Long> startedAt = new ConcurrentHashMap<>();
+    private final Map<String, Long> finishedAt = new ConcurrentHashMap<>();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public void submitted() {
+        submitted.incrementAndGet();
+    }
+
+    public void accepted(String orderId, long startNanos) {
+        startedAt.put(orderId, startNanos);
+    }
+
+    public void rejected() {
+        rejected.incrementAndGet();
+    }
+
+    @EventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getStatus() == OrderStatus.COMPLETED || event.getStatus() == OrderStatus.FAILED) {
+            finishedAt.put(event.getOrderId(), System.nanoTime());
+            (event.getStatus() == OrderStatus.COMPLETED ? completed : failed).incrementAndGet();
+        }
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getAccepted() {
+        return startedAt.size();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getOutstanding() {
+        return startedAt.size() - completed.get() - failed.get();
+    }
+
+    // create-request start to terminal status, in milliseconds, sorted ascending
+    public double[] latenciesMillis() {
+        return startedAt.entrySet().stream()
+                .filter(entry -> finishedAt.containsKey(entry.getKey()))
+                .mapToDouble(entry -> (finishedAt.get(entry.getKey()) - entry.getValue()) / 1_000_000.0)
+                .sorted()
+                .toArray();
+    }
+
+    public static double percentile(double[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    public static double max(double[] sorted) {
+        return sorted.length == 0 ? Double.NaN : sorted[sorted.length - 1];
+    }
+}
@@ -0,0 +1,74 @@
+package com.bwagih.orderservice.infrastructure.order.mongo;
+
+import com.bwagih.orderservice.infrastructure.config.MongoIndexBootstrapper;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// explains every repository query against a real planner, so a query the declared indexes do not serve fails the build
+class QueryPlanVerifierTest {
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private static MongoClient mongoClient;
+
+    private MongoTemplate mongoTemplate;
+    private MongoIndexBootstrapper indexBootstrapper;
+
+    @BeforeAll
+    static void startMongo() {
+        mongod = Mongod.instance().start(Version.Main.V6_0);
+        ServerAddress address = mongod.current().getServerAddress();
+        mongoClient = MongoClients.create("mongodb://" + address.getHost() + ":" + address.getPort());
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoClient.close();
+        mongod.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = new MongoTemplate(mongoClient, "query-plan-test");
+        mongoTemplate.getDb().drop();
+        indexBootstrapper = new MongoIndexBootstrapper(mongoTemplate);
+        ReflectionTestUtils.setField(indexBootstrapper, "dedupTtlMs", 86400000L);
+    }
+
+    @Test
+    void everyRepositoryQueryIsServedByADeclaredIndex() {
+        indexBootstrapper.reconcileIndexes();
+
+        assertThat(verifier().collectionScans()).isEmpty();
+    }
+
+    @Test
+    void collectionScanFailsVerification() {
+        indexBootstrapper.reconcileIndexes();
+        mongoTemplate.indexOps(MongoOrder.COLLECTION).dropAllIndexes();
+
+        QueryPlanVerifier verifier = verifier();
+
+        assertThat(verifier.collectionScans()).contains("findOrdersByStatus");
+        assertThatThrownBy(verifier::verify).isInstanceOf(IllegalStateException.class);
+    }
+
+    private QueryPlanVerifier verifier() {
+        QueryPlanVerifier verifier = new QueryPlanVerifier(mongoTemplate, indexBootstrapper);
+        ReflectionTestUtils.setField(verifier, "failOnCollscan", true);
+        return verifier;
+    }
+}
@@ -1,10 +1,13 @@
 package com.bwagih.orderservice.application.advice;
 
 import com.bwagih.orderservice.shared.Defines;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebInputException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -15,6 +18,33 @@ public class GlobalExceptionHandler {
                              .body(new ErrorResponse(Defines.UN_EXPECTED_ERROR, ex.getMessage()));
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<?> handleInvalidRequest(InvalidRequestException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                             .body(new ErrorResponse(Defines.INVALID_REQUEST, ex.getMessage()));
+    }
+
+    // e.g. a status path variable that names no OrderStatus
+    @ExceptionHandler(TypeMismatchException.class)
+    public ResponseEntity<?> handleTypeMismatch(TypeMismatchException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                             .body(new ErrorResponse(Defines.INVALID_REQUEST, Defines.INVALID_PARAMETER + ex.getPropertyName() + "=" + ex.getValue()));
+    }
+
+    // WebFlux reports binding failures wrapped in this
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<?> handleServerWebInput(ServerWebInputException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                             .body(new ErrorResponse(Defines.INVALID_REQUEST, ex.getReason()));
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<?> handleAdmissionRejected(AdmissionRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                             .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                             .body(new ErrorResponse(Defines.SERVICE_SATURATED, ex.getMessage()));
+    }
+
     @ExceptionHandler(OrderNotFoundException.class)
     public ResponseEntity<?> handleOrderNotFound(OrderNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
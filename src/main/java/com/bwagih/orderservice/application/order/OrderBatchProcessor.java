@@ -0,0 +1,158 @@
+package com.bwagih.orderservice.application.order;
+
+import com.bwagih.orderservice.application.order.saga.OrderSaga;
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import com.bwagih.orderservice.domain.order.Order;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.domain.order.OrderStatusChangedEvent;
+import com.bwagih.orderservice.domain.order.StatusChange;
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.infrastructure.idempotency.ProcessedMessageStore;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrderRepository;
+import com.bwagih.orderservice.infrastructure.retry.OrderRetryScheduler;
+import com.bwagih.orderservice.shared.Defines;
+import com.bwagih.orderservice.shared.annotations.MeasureExecutionTime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderBatchProcessor {
+
+    private final MongoOrderRepository orderRepository;
+    private final RabbitMqOrderConfig rabbitMqOrderConfig;
+    private final OrderSaga orderSaga;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProcessedMessageStore processedMessageStore;
+    private final OrderRetryScheduler orderRetryScheduler;
+
+    @MeasureExecutionTime(slowThresholdMs = Defines.Measurement.SAGA_SLOW_THRESHOLD_MS)
+    @RabbitListener(id = Defines.MQ.ORDER_BATCH_LISTENER_ID, queues = "#{rabbitMqOrderConfig.getQueue()}",
+            containerFactory = "batchRabbitListenerContainerFactory",
+            autoStartup = "#{${rabbitmq.auto-startup:true} && ${rabbitmq.batch.enabled:false}}")
+    public void processOrders(List<Message<String>> messages) {
+        // the first delivery of an order drives it; any later one in the same batch is marked processed with it
+        Map<String, Delivery> deliveries = new LinkedHashMap<>(messages.size());
+        List<Delivery> handled = new ArrayList<>(messages.size());
+        for (Message<String> message : messages) {
+            Delivery delivery = Delivery.of(message);
+            // as in OrderProcessor, only redeliveries and retries pay for a store lookup
+            if (processedMessageStore.isProcessed(delivery.orderId(), delivery.messageId(), delivery.attempt(), delivery.resumable())) {
+                log.debug(Defines.Order.DUPLICATE_MESSAGE_SKIPPED, delivery.orderId(), delivery.messageId());
+                continue;
+            }
+            handled.add(delivery);
+            deliveries.putIfAbsent(delivery.orderId(), delivery);
+        }
+        if (deliveries.isEmpty()) {
+            return;
+        }
+
+        process(deliveries);
+        // an exception above leaves the batch unacked and unmarked, so its redelivery runs it again
+        handled.forEach(delivery -> processedMessageStore.markProcessed(delivery.orderId(), delivery.messageId(), delivery.attempt()));
+    }
+
+    private void process(Map<String, Delivery> deliveries) {
+        List<Order> orders = orderRepository.findAllById(deliveries.keySet()).stream()
+                .filter(order -> (deliveries.get(order.getOrderId()).resumable() ? OrderProcessor.RESUMABLE : OrderProcessor.STARTABLE)
+                        .contains(order.getStatus()))
+                .toList();
+        if (orders.size() < deliveries.size()) {
+            log.warn(Defines.Order.BATCH_ORDERS_MISSING, deliveries.size() - orders.size(), deliveries.size());
+        }
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        // each order is claimed from the status it was loaded with, so one that another consumer moved in
+        // the meantime is not matched, and a matched one's previous status is known exactly
+        Map<OrderStatus, List<String>> loadedIds = orders.stream().collect(Collectors.groupingBy(Order::getStatus,
+                () -> new EnumMap<>(OrderStatus.class), Collectors.mapping(Order::getOrderId, Collectors.toList())));
+        List<StatusChange<String>> claims = new ArrayList<>(loadedIds.size());
+        loadedIds.forEach((status, ids) ->
+                claims.add(new StatusChange<>(ids, EnumSet.of(status), OrderStatus.PROCESSING, SagaStatus.IN_PROGRESS)));
+        Set<String> claimedIds = orderRepository.updateStatuses(claims);
+        List<Order> claimed = orders.stream().filter(order -> claimedIds.contains(order.getOrderId())).toList();
+        if (claimed.size() < orders.size()) {
+            log.info(Defines.Order.BATCH_ORDERS_CLAIMED_ELSEWHERE, orders.size() - claimed.size(), orders.size());
+        }
+        claimed.forEach(order -> eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getOrderId(),
+                order.getStatus(), order.getSagaStatus(), OrderStatus.PROCESSING, SagaStatus.IN_PROGRESS)));
+
+        // completes with the saga's failure, or null once it succeeded
+        Map<String, CompletableFuture<Throwable>> outcomes = new LinkedHashMap<>();
+        for (Order order : claimed) {
+            outcomes.put(order.getOrderId(), orderSaga.run(order).handle((ignored, ex) -> ex));
+        }
+        CompletableFuture.allOf(outcomes.values().toArray(CompletableFuture[]::new)).join();
+
+        List<String> completed = new ArrayList<>(outcomes.size());
+        List<String> failed = new ArrayList<>();
+        Map<String, CompletableFuture<Void>> retries = new LinkedHashMap<>();
+        outcomes.forEach((orderId, outcome) -> {
+            Throwable ex = outcome.join();
+            if (ex == null) {
+                completed.add(orderId);
+                return;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            // the order stays PROCESSING while it waits in a retry tier; only the last tier rolls it back
+            Delivery delivery = deliveries.get(orderId);
+            if (orderRetryScheduler.canRetry(delivery.attempt())) {
+                log.warn(Defines.Order.ORDER_RETRY_SCHEDULED, orderId, delivery.attempt() + 1, cause.getMessage());
+                retries.put(orderId, orderRetryScheduler.schedule(orderId, delivery.messageId(), delivery.attempt(),
+                        delivery.receivedRoutingKey()));
+            } else {
+                log.error(Defines.Order.ORDER_PROCESSING_ERROR, orderId, cause.getMessage());
+                failed.add(orderId);
+            }
+        });
+        retries.forEach((orderId, retry) -> {
+            try {
+                retry.join();
+            } catch (CompletionException ex) {
+                log.error(Defines.Order.ORDER_PROCESSING_ERROR, orderId, ex.getCause().getMessage());
+                failed.add(orderId);
+            }
+        });
+
+        // both transitions start from PROCESSING only, so a matched order's previous status is exact
+        Set<String> finishedIds = orderRepository.updateStatuses(List.of(
+                new StatusChange<>(completed, OrderProcessor.IN_FLIGHT, OrderStatus.COMPLETED, SagaStatus.SUCCESS),
+                new StatusChange<>(failed, OrderProcessor.IN_FLIGHT, OrderStatus.FAILED, SagaStatus.ROLLBACK)));
+        publishStatusChanged(completed, finishedIds, OrderStatus.COMPLETED, SagaStatus.SUCCESS);
+        publishStatusChanged(failed, finishedIds, OrderStatus.FAILED, SagaStatus.ROLLBACK);
+    }
+
+    // only for the orders the update matched, the others were moved on by someone else meanwhile
+    private void publishStatusChanged(List<String> orderIds, Set<String> movedIds, OrderStatus status, SagaStatus sagaStatus) {
+        orderIds.stream().filter(movedIds::contains).forEach(orderId -> eventPublisher.publishEvent(
+                new OrderStatusChangedEvent(orderId, OrderStatus.PROCESSING, SagaStatus.IN_PROGRESS, status, sagaStatus)));
+    }
+
+    // resumable: redelivered, retried and replayed messages may find the saga they interrupted still PROCESSING
+    private record Delivery(String orderId, String messageId, int attempt, boolean resumable, String receivedRoutingKey) {
+
+        static Delivery of(Message<String> message) {
+            MessageHeaders headers = message.getHeaders();
+            Integer retryAttempt = headers.get(Defines.MQ.RETRY_ATTEMPT_HEADER, Integer.class);
+            boolean redelivered = Boolean.TRUE.equals(headers.get(AmqpHeaders.REDELIVERED));
+            return new Delivery(message.getPayload(), headers.get(AmqpHeaders.MESSAGE_ID, String.class),
+                    retryAttempt == null ? 0 : retryAttempt, redelivered || retryAttempt != null,
+                    headers.get(AmqpHeaders.RECEIVED_ROUTING_KEY, String.class));
+        }
+    }
+}
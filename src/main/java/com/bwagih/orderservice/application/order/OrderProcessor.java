@@ -1,19 +1,31 @@
 package com.bwagih.orderservice.application.order;
 
-import com.bwagih.orderservice.application.advice.OrderNotFoundException;
+import com.bwagih.orderservice.application.order.saga.OrderSaga;
 import com.bwagih.orderservice.shared.annotations.MeasureExecutionTime;
 import com.bwagih.orderservice.shared.Defines;
 import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.infrastructure.idempotency.ProcessedMessageStore;
+import com.bwagih.orderservice.infrastructure.retry.OrderRetryScheduler;
 import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrderRepository;
 import com.bwagih.orderservice.domain.order.Order;
+import com.bwagih.orderservice.domain.order.OrderStatusChangedEvent;
 import com.bwagih.orderservice.domain.order.OrderStatus;
 import com.bwagih.orderservice.domain.enums.SagaStatus;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 
 @Service
@@ -22,46 +34,103 @@ public class OrderProcessor {
 
     private static final Logger log = LoggerFactory.getLogger(OrderProcessor.class);
 
+    static final Collection<OrderStatus> STARTABLE = EnumSet.of(OrderStatus.PENDING);
+    // a redelivery after a consumer crash may find the saga it interrupted still PROCESSING
+    static final Collection<OrderStatus> RESUMABLE = EnumSet.of(OrderStatus.PENDING, OrderStatus.PROCESSING);
+    static final Collection<OrderStatus> IN_FLIGHT = EnumSet.of(OrderStatus.PROCESSING);
+
     private final MongoOrderRepository orderRepository;
     private final RabbitMqOrderConfig rabbitMqOrderConfig;
+    private final OrderSaga orderSaga;
+    private final ThreadPoolTaskExecutor sagaExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProcessedMessageStore processedMessageStore;
+    private final OrderRetryScheduler orderRetryScheduler;
+
+    // the listener thread only starts the saga; the container acks once the future completes
+    @MeasureExecutionTime(slowThresholdMs = Defines.Measurement.SAGA_SLOW_THRESHOLD_MS)
+    @RabbitListener(id = Defines.MQ.ORDER_LISTENER_ID, queues = "#{rabbitMqOrderConfig.getQueue()}", autoStartup = "#{${rabbitmq.auto-startup:true} && !${rabbitmq.batch.enabled:false}}")
+    @RabbitListener(id = Defines.MQ.ORDER_PARTITION_LISTENER_ID, queues = "#{orderPartitioner.claimedQueues()}",
+            containerFactory = "partitionRabbitListenerContainerFactory",
+            autoStartup = "#{${rabbitmq.auto-startup:true} && orderPartitioner.isEnabled()}")
+    public CompletableFuture<Void> processOrder(String orderId,
+                                                @Header(name = AmqpHeaders.REDELIVERED, defaultValue = "false") boolean redelivered,
+                                                @Header(name = AmqpHeaders.MESSAGE_ID, required = false) String messageId,
+                                                @Header(name = Defines.MQ.RETRY_ATTEMPT_HEADER, required = false) Integer retryAttempt,
+                                                @Header(name = AmqpHeaders.RECEIVED_ROUTING_KEY, required = false) String receivedRoutingKey) {
+        // retried and replayed messages may find the saga they interrupted still PROCESSING
+        boolean resumable = redelivered || retryAttempt != null;
+        int attempt = retryAttempt == null ? 0 : retryAttempt;
+
+        // a first delivery can only repeat work this instance finished, so only redeliveries pay for a store lookup
+        if (!resumable) {
+            if (processedMessageStore.isProcessed(orderId, messageId, attempt, false)) {
+                log.debug(Defines.Order.DUPLICATE_MESSAGE_SKIPPED, orderId, messageId);
+                return CompletableFuture.completedFuture(null);
+            }
+            return runSaga(orderId, messageId, STARTABLE, attempt, receivedRoutingKey);
+        }
+        return CompletableFuture
+                .supplyAsync(() -> processedMessageStore.isProcessed(orderId, messageId, attempt, true), sagaExecutor)
+                .thenCompose(duplicate -> {
+                    if (duplicate) {
+                        log.debug(Defines.Order.DUPLICATE_MESSAGE_SKIPPED, orderId, messageId);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return runSaga(orderId, messageId, RESUMABLE, attempt, receivedRoutingKey);
+                });
+    }
 
-    @MeasureExecutionTime
-    @RabbitListener(queues = "#{rabbitMqOrderConfig.getQueue()}")
-    public void processOrder(String orderId) {
-        try {
-
-            Order order = orderRepository.findById(orderId).orElseThrow(() -> new OrderNotFoundException(Defines.Order.ORDER_NOT_FOUND + orderId));
-            saveOrderWithUpdatedStatus(order, OrderStatus.PROCESSING, SagaStatus.IN_PROGRESS);
-
-            simulateProcessing();
-
-            saveOrderWithUpdatedStatus(order, OrderStatus.COMPLETED, SagaStatus.SUCCESS);
+    private CompletableFuture<Void> runSaga(String orderId, String messageId, Collection<OrderStatus> startable, int attempt,
+                                            String receivedRoutingKey) {
+        return CompletableFuture
+                .supplyAsync(() -> saveOrderWithUpdatedStatus(orderId, startable,
+                        OrderStatus.PROCESSING, SagaStatus.IN_PROGRESS), sagaExecutor)
+                .thenCompose(order -> {
+                    if (order.isEmpty()) {
+                        log.info(Defines.Order.ORDER_TRANSITION_SKIPPED, orderId, OrderStatus.PROCESSING);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return orderSaga.run(order.get())
+                            .thenRunAsync(() -> saveOrderWithUpdatedStatus(orderId, IN_FLIGHT,
+                                    OrderStatus.COMPLETED, SagaStatus.SUCCESS), sagaExecutor);
+                })
+                .exceptionallyComposeAsync(ex -> retryOrRollback(orderId, messageId, attempt, receivedRoutingKey,
+                        ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex), sagaExecutor)
+                .thenRun(() -> processedMessageStore.markProcessed(orderId, messageId, attempt));
+    }
 
-        } catch (Exception e) {
-            log.error(Defines.Order.ORDER_PROCESSING_ERROR, orderId, e.getMessage());
+    // the order stays PROCESSING while it waits in a retry tier; only the last tier rolls it back
+    private CompletableFuture<Void> retryOrRollback(String orderId, String messageId, int attempt, String receivedRoutingKey,
+                                                    Throwable cause) {
+        if (!orderRetryScheduler.canRetry(attempt)) {
+            log.error(Defines.Order.ORDER_PROCESSING_ERROR, orderId, cause.getMessage());
             rollbackOrder(orderId);
+            return CompletableFuture.completedFuture(null);
         }
+        log.warn(Defines.Order.ORDER_RETRY_SCHEDULED, orderId, attempt + 1, cause.getMessage());
+        return orderRetryScheduler.schedule(orderId, messageId, attempt, receivedRoutingKey)
+                .exceptionallyAsync(ex -> {
+                    log.error(Defines.Order.ORDER_PROCESSING_ERROR, orderId, ex.getMessage());
+                    rollbackOrder(orderId);
+                    return null;
+                }, sagaExecutor);
     }
 
 
     public void rollbackOrder(String orderId) {
-        orderRepository.findById(orderId).ifPresent(order -> saveOrderWithUpdatedStatus(order, OrderStatus.FAILED, SagaStatus.ROLLBACK));
+        saveOrderWithUpdatedStatus(orderId, RESUMABLE, OrderStatus.FAILED, SagaStatus.ROLLBACK);
     }
 
 
-    @Transactional
-    public void saveOrderWithUpdatedStatus(Order order, OrderStatus status, SagaStatus sagaStatus) {
-        order.setStatus(status);
-        order.setSagaStatus(sagaStatus);
-        orderRepository.save(order);
-    }
-
-    private void simulateProcessing() {
-        try {
-            Thread.sleep(5000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    public Optional<Order> saveOrderWithUpdatedStatus(String orderId, Collection<OrderStatus> expected,
+                                                      OrderStatus status, SagaStatus sagaStatus) {
+        return orderRepository.transition(orderId, expected, status, sagaStatus).map(order -> {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(orderId, order.getStatus(), order.getSagaStatus(), status, sagaStatus));
+            order.setStatus(status);
+            order.setSagaStatus(sagaStatus);
+            return order;
+        });
     }
 
 }
@@ -1,21 +1,44 @@
 package com.bwagih.orderservice.application.order;
 
+import com.bwagih.orderservice.application.advice.AdmissionRejectedException;
+import com.bwagih.orderservice.application.advice.InvalidRequestException;
 import com.bwagih.orderservice.application.advice.OrderNotFoundException;
+import com.bwagih.orderservice.application.order.admission.OrderAdmissionController;
+import com.bwagih.orderservice.application.order.stats.OrderStatistics;
 import com.bwagih.orderservice.shared.annotations.MeasureExecutionTime;
 import com.bwagih.orderservice.shared.Defines;
-import com.bwagih.orderservice.infrastructure.RabbitMQPublisher;
-import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.presentation.dots.BatchOrderResponseDTO;
+import com.bwagih.orderservice.presentation.dots.BatchOrderResultDTO;
 import com.bwagih.orderservice.presentation.dots.OrderDTO;
-import com.bwagih.orderservice.infrastructure.order.mongo.OrderProjection;
+import com.bwagih.orderservice.presentation.dots.OrderPageDTO;
+import com.bwagih.orderservice.presentation.dots.OrderStatsDTO;
+import com.bwagih.orderservice.presentation.dots.OrderStatusBatchDTO;
+import com.bwagih.orderservice.infrastructure.cache.OrderStatusCache;
+import com.bwagih.orderservice.infrastructure.order.mongo.OrderStatusView;
 import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrderRepository;
+import com.bwagih.orderservice.infrastructure.subscription.OrderStatusSubscriptions;
+import com.bwagih.orderservice.domain.order.BulkSaveResult;
 import com.bwagih.orderservice.domain.order.Order;
 import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.domain.order.OrderStatusChangedEvent;
 import com.bwagih.orderservice.domain.enums.SagaStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -23,36 +46,202 @@ import java.util.List;
 public class OrderService {
 
     private final MongoOrderRepository orderRepository;
-    private final RabbitMQPublisher messagePublisher;
-    private final RabbitMqOrderConfig rabbitMqOrderConfig;
+    private final OrderStatusCache orderStatusCache;
+    private final OrderAdmissionController admissionController;
+    private final OrderStatistics orderStatistics;
+    private final OrderStatusSubscriptions orderStatusSubscriptions;
 
+    @Value("${order.batch.max-size:5000}")
+    private int maxBatchSize;
+
+    @Value("${order.page.max-limit:1000}")
+    private int maxPageSize;
+
+    @Value("${order.status-batch.max-ids:1000}")
+    private int maxStatusBatchSize;
 
     @MeasureExecutionTime
     public OrderDTO createOrder(OrderDTO orderDTO) {
-        Order order = getOrderWithUpdatedStatus(orderDTO, OrderStatus.PENDING, SagaStatus.INITIATED);
+        admissionController.admit(1);
+        try {
+            Order order = getOrderWithUpdatedStatus(orderDTO, OrderStatus.PENDING, SagaStatus.INITIATED);
 
-        Order savedOrder = orderRepository.save(order);
+            // the outbox relay publishes the order id once this write is durable
+            Order savedOrder = orderRepository.saveWithOutbox(order);
+            orderStatistics.recordCreated(1, OrderStatus.PENDING, SagaStatus.INITIATED);
+            log.info(Defines.Order.ORDER_QUEUED_INFO, savedOrder.getOrderId());
+
+            return OrderMapper.INSTANCE.toDTO(savedOrder);
+        } finally {
+            admissionController.release();
+        }
+    }
 
-        messagePublisher.publish(rabbitMqOrderConfig.getExchange(), rabbitMqOrderConfig.getRoutingKey(), savedOrder.getOrderId());
-        log.info(Defines.Order.ORDER_PUBLISHER_INFO, savedOrder.getOrderId());
+    @MeasureExecutionTime
+    public BatchOrderResponseDTO createOrders(List<OrderDTO> orderDTOs) {
+        if (orderDTOs == null || orderDTOs.isEmpty()) {
+            throw new InvalidRequestException(Defines.Order.BATCH_EMPTY);
+        }
+        if (orderDTOs.size() > maxBatchSize) {
+            throw new InvalidRequestException(Defines.Order.BATCH_TOO_LARGE + maxBatchSize);
+        }
 
-        return OrderMapper.INSTANCE.toDTO(savedOrder);
+        admissionController.admit(orderDTOs.size());
+        try {
+            return saveBatch(orderDTOs);
+        } finally {
+            admissionController.release();
+        }
     }
 
-    private static Order getOrderWithUpdatedStatus(OrderDTO orderDTO, OrderStatus status, SagaStatus sagaStatus) {
+    private BatchOrderResponseDTO saveBatch(List<OrderDTO> orderDTOs) {
+        BatchOrderResultDTO[] results = new BatchOrderResultDTO[orderDTOs.size()];
+        List<Order> orders = new ArrayList<>(orderDTOs.size());
+        List<Integer> requestIndexes = new ArrayList<>(orderDTOs.size());
+        for (int i = 0; i < orderDTOs.size(); i++) {
+            OrderDTO orderDTO = orderDTOs.get(i);
+            if (orderDTO == null) {
+                results[i] = failedResult(i, null, Defines.Order.BATCH_INVALID_ENTRY);
+                continue;
+            }
+            orders.add(getOrderWithUpdatedStatus(orderDTO, OrderStatus.PENDING, SagaStatus.INITIATED));
+            requestIndexes.add(i);
+        }
+
+        BulkSaveResult saveResult = orders.isEmpty()
+                ? new BulkSaveResult(List.of(), Map.of())
+                : orderRepository.saveAllWithOutbox(orders);
+
+        int savedPosition = 0;
+        for (int position = 0; position < orders.size(); position++) {
+            int index = requestIndexes.get(position);
+            String error = saveResult.getFailures().get(position);
+            if (error != null) {
+                results[index] = failedResult(index, orders.get(position).getOrderId(), error);
+                continue;
+            }
+            String orderId = saveResult.getSaved().get(savedPosition++).getOrderId();
+            results[index] = BatchOrderResultDTO.builder().index(index).orderId(orderId).success(true).build();
+        }
+
+        int accepted = saveResult.getSaved().size();
+        orderStatistics.recordCreated(accepted, OrderStatus.PENDING, SagaStatus.INITIATED);
+        log.info(Defines.Order.BATCH_RECEIVED, accepted, results.length - accepted);
+        return BatchOrderResponseDTO.builder()
+                .accepted(accepted)
+                .rejected(results.length - accepted)
+                .results(List.of(results))
+                .build();
+    }
+
+    private static BatchOrderResultDTO failedResult(int index, String orderId, String error) {
+        return BatchOrderResultDTO.builder().index(index).orderId(orderId).success(false).error(error).build();
+    }
+
+    static Order getOrderWithUpdatedStatus(OrderDTO orderDTO, OrderStatus status, SagaStatus sagaStatus) {
         Order order = OrderMapper.INSTANCE.toEntity(orderDTO);
         order.setStatus(status);
         order.setSagaStatus(sagaStatus);
         return order;
     }
 
-    public List<OrderProjection> getOrdersByStatus(String status) {
-        return orderRepository.findOrdersByStatus(status);
+    public OrderPageDTO getOrdersByStatus(OrderStatus status, String cursor, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new InvalidRequestException(Defines.Order.INVALID_PAGE_LIMIT + maxPageSize);
+        }
+
+        List<OrderStatusView> items = orderRepository.findOrdersByStatus(status, decodeCursor(cursor), limit);
+        String nextCursor = items.size() < limit ? null : encodeCursor(items.get(items.size() - 1).orderId());
+        return OrderPageDTO.builder().items(items).nextCursor(nextCursor).build();
+    }
+
+    // callers must close the stream; it holds an open Mongo cursor
+    public Stream<OrderStatusView> streamOrdersByStatus(OrderStatus status) {
+        return orderRepository.streamOrdersByStatus(status);
+    }
+
+    static String encodeCursor(String orderId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(orderId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            // Base64 decoding failure
+            throw new InvalidRequestException(Defines.Order.INVALID_CURSOR, ex);
+        }
+    }
+
+    public OrderStatsDTO getOrderStats() {
+        return orderStatistics.snapshot();
+    }
+
+    public OrderStatusView getOrderStatus(String orderId) {
+        OrderStatusView status = orderStatusCache.get(orderId, id -> orderRepository.findOrderStatusByOrderId(id).orElse(null));
+        if (status == null) {
+            throw new OrderNotFoundException(Defines.Order.ORDER_NOT_FOUND + orderId);
+        }
+        return status;
+    }
+
+    // cache hits are answered in place, all misses go to the repository as a single lookup
+    public OrderStatusBatchDTO getOrderStatuses(List<String> orderIds) {
+        Set<String> requested = requestedOrderIds(orderIds, maxStatusBatchSize);
+        Map<String, OrderStatusView> found = orderStatusCache.getAll(requested, uncached ->
+                orderRepository.findOrderStatusesByIds(uncached).stream()
+                        .collect(Collectors.toMap(OrderStatusView::orderId, Function.identity())));
+        return statusBatch(requested, found);
+    }
+
+    // duplicates and null entries are dropped, the rest keeps the request order
+    static Set<String> requestedOrderIds(List<String> orderIds, int maxSize) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            throw new InvalidRequestException(Defines.Order.STATUS_BATCH_EMPTY);
+        }
+        if (orderIds.size() > maxSize) {
+            throw new InvalidRequestException(Defines.Order.STATUS_BATCH_TOO_LARGE + maxSize);
+        }
+        Set<String> requested = new LinkedHashSet<>(orderIds);
+        requested.remove(null);
+        if (requested.isEmpty()) {
+            throw new InvalidRequestException(Defines.Order.STATUS_BATCH_EMPTY);
+        }
+        return requested;
+    }
+
+    static OrderStatusBatchDTO statusBatch(Set<String> requested, Map<String, OrderStatusView> found) {
+        Map<String, OrderStatusView> statuses = new LinkedHashMap<>(found.size());
+        List<String> missing = new ArrayList<>();
+        for (String orderId : requested) {
+            OrderStatusView status = found.get(orderId);
+            if (status != null) {
+                statuses.put(orderId, status);
+            } else {
+                missing.add(orderId);
+            }
+        }
+        return OrderStatusBatchDTO.builder().statuses(statuses).missing(missing).build();
     }
 
-    public OrderProjection getOrderStatus(String orderId) {
-        return orderRepository.findOrderStatusByOrderId(orderId)
-                .orElseThrow(() -> new OrderNotFoundException(Defines.Order.ORDER_NOT_FOUND + orderId));
+    // registers before reading the current status, so a transition in between is not missed; the read
+    // bypasses the status cache, a stale entry could leave the subscriber waiting for a past transition
+    public Runnable subscribeOrderStatus(String orderId, Consumer<OrderStatusChangedEvent> listener) {
+        Runnable unsubscribe = orderStatusSubscriptions.subscribe(orderId, listener)
+                .orElseThrow(() -> new AdmissionRejectedException(
+                        Defines.Subscriptions.LIMIT_REACHED + orderStatusSubscriptions.getMaxSubscribers(), 1));
+        try {
+            OrderStatusView current = orderRepository.findOrderStatusByOrderId(orderId)
+                    .orElseThrow(() -> new OrderNotFoundException(Defines.Order.ORDER_NOT_FOUND + orderId));
+            listener.accept(OrderStatusSubscriptions.snapshot(current));
+            return unsubscribe;
+        } catch (RuntimeException ex) {
+            unsubscribe.run();
+            throw ex;
+        }
     }
 
 }
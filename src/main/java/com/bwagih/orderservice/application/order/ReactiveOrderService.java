@@ -0,0 +1,143 @@
+package com.bwagih.orderservice.application.order;
+
+import com.bwagih.orderservice.application.advice.AdmissionRejectedException;
+import com.bwagih.orderservice.application.advice.InvalidRequestException;
+import com.bwagih.orderservice.application.advice.OrderNotFoundException;
+import com.bwagih.orderservice.application.order.admission.OrderAdmissionController;
+import com.bwagih.orderservice.application.order.stats.OrderStatistics;
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.domain.order.OrderStatusChangedEvent;
+import com.bwagih.orderservice.infrastructure.cache.OrderStatusCache;
+import com.bwagih.orderservice.infrastructure.order.mongo.OrderStatusView;
+import com.bwagih.orderservice.infrastructure.order.mongo.ReactiveMongoOrderRepository;
+import com.bwagih.orderservice.infrastructure.subscription.OrderStatusSubscriptions;
+import com.bwagih.orderservice.presentation.dots.OrderDTO;
+import com.bwagih.orderservice.presentation.dots.OrderPageDTO;
+import com.bwagih.orderservice.presentation.dots.OrderStatsDTO;
+import com.bwagih.orderservice.presentation.dots.OrderStatusBatchDTO;
+import com.bwagih.orderservice.shared.Defines;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+// non-blocking counterpart of OrderService, used when the application runs on WebFlux
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveOrderService {
+
+    private final ReactiveMongoOrderRepository orderRepository;
+    private final OrderStatusCache orderStatusCache;
+    private final OrderAdmissionController admissionController;
+    private final OrderStatistics orderStatistics;
+    private final OrderStatusSubscriptions orderStatusSubscriptions;
+
+    @Value("${order.page.max-limit:1000}")
+    private int maxPageSize;
+
+    @Value("${order.status-batch.max-ids:1000}")
+    private int maxStatusBatchSize;
+
+    @Value("${order.subscriptions.timeout-ms:300000}")
+    private long subscriptionTimeoutMs;
+
+    // publishing stays with the outbox relay, so creation is a single non-blocking insert
+    public Mono<OrderDTO> createOrder(OrderDTO orderDTO) {
+        return Mono.defer(() -> {
+            admissionController.admit(1);
+            return orderRepository.saveWithOutbox(OrderService.getOrderWithUpdatedStatus(orderDTO, OrderStatus.PENDING, SagaStatus.INITIATED))
+                    .doOnNext(savedOrder -> {
+                        orderStatistics.recordCreated(1, OrderStatus.PENDING, SagaStatus.INITIATED);
+                        log.info(Defines.Order.ORDER_QUEUED_INFO, savedOrder.getOrderId());
+                    })
+                    .map(OrderMapper.INSTANCE::toDTO)
+                    .doFinally(signal -> admissionController.release());
+        });
+    }
+
+    public Mono<OrderPageDTO> getOrdersByStatus(OrderStatus status, String cursor, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            return Mono.error(new InvalidRequestException(Defines.Order.INVALID_PAGE_LIMIT + maxPageSize));
+        }
+        String afterOrderId;
+        try {
+            afterOrderId = OrderService.decodeCursor(cursor);
+        } catch (InvalidRequestException ex) {
+            return Mono.error(ex);
+        }
+        return orderRepository.findOrdersByStatus(status, afterOrderId, limit)
+                .collectList()
+                .map(items -> OrderPageDTO.builder()
+                        .items(items)
+                        .nextCursor(items.size() < limit ? null : OrderService.encodeCursor(items.get(items.size() - 1).orderId()))
+                        .build());
+    }
+
+    public Flux<OrderStatusView> streamOrdersByStatus(OrderStatus status) {
+        return orderRepository.streamOrdersByStatus(status);
+    }
+
+    // served from in-memory counters, nothing to wait on
+    public Mono<OrderStatsDTO> getOrderStats() {
+        return Mono.fromSupplier(orderStatistics::snapshot);
+    }
+
+    // the cache future is shared with other readers, so cancelling this Mono leaves it running
+    public Mono<OrderStatusView> getOrderStatus(String orderId) {
+        return Mono.fromFuture(() -> orderStatusCache.getAsync(orderId, id -> orderRepository.findOrderStatusByOrderId(id).toFuture()), true)
+                .switchIfEmpty(Mono.error(() -> new OrderNotFoundException(Defines.Order.ORDER_NOT_FOUND + orderId)));
+    }
+
+    public Mono<OrderStatusBatchDTO> getOrderStatuses(List<String> orderIds) {
+        Set<String> requested;
+        try {
+            requested = OrderService.requestedOrderIds(orderIds, maxStatusBatchSize);
+        } catch (InvalidRequestException ex) {
+            return Mono.error(ex);
+        }
+        return Mono.fromFuture(() -> orderStatusCache.getAllAsync(requested, uncached ->
+                        orderRepository.findOrderStatusesByIds(uncached).collectMap(OrderStatusView::orderId).toFuture()), true)
+                .map(found -> OrderService.statusBatch(requested, found));
+    }
+
+    // same contract as OrderService.subscribeOrderStatus; onBackpressureLatest conflates for slow clients
+    public Flux<OrderStatusChangedEvent> subscribeOrderStatus(String orderId) {
+        return Flux.defer(() -> {
+            AtomicReference<OrderStatus> lastSent = new AtomicReference<>();
+            return Flux.<OrderStatusChangedEvent>create(sink -> {
+                        Optional<Runnable> unsubscribe = orderStatusSubscriptions.subscribe(orderId, sink::next);
+                        if (unsubscribe.isEmpty()) {
+                            sink.error(new AdmissionRejectedException(
+                                    Defines.Subscriptions.LIMIT_REACHED + orderStatusSubscriptions.getMaxSubscribers(), 1));
+                            return;
+                        }
+                        sink.onDispose(unsubscribe.get()::run);
+                        orderRepository.findOrderStatusByOrderId(orderId)
+                                .switchIfEmpty(Mono.error(() -> new OrderNotFoundException(Defines.Order.ORDER_NOT_FOUND + orderId)))
+                                .subscribe(current -> sink.next(OrderStatusSubscriptions.snapshot(current)), sink::error);
+                    })
+                    .onBackpressureLatest()
+                    .filter(event -> {
+                        if (!OrderStatusSubscriptions.isNewer(lastSent.get(), event.getStatus())) {
+                            return false;
+                        }
+                        lastSent.set(event.getStatus());
+                        return true;
+                    })
+                    .takeUntil(event -> OrderStatusSubscriptions.isTerminal(event.getStatus()))
+                    .take(Duration.ofMillis(subscriptionTimeoutMs));
+        });
+    }
+}
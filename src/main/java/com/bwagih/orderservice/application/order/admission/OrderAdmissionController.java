@@ -0,0 +1,263 @@
+package com.bwagih.orderservice.application.order.admission;
+
+import com.bwagih.orderservice.application.advice.AdmissionRejectedException;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.domain.order.OrderStatusChangedEvent;
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.infrastructure.partition.OrderPartitioner;
+import com.bwagih.orderservice.shared.Defines;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.DirectMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Gate in front of order creation. A request is shed when the queued backlog would take longer than
+ * max-queue-delay to drain, when too many submissions are already in flight, or when the token
+ * bucket is empty. While a backlog exists the bucket refills at the measured completion rate (plus
+ * headroom), so intake follows what the consumers actually manage to process.
+ * The queue depth is broker-wide but completions are only seen for this instance's own consumers,
+ * so the drain rate behind the delay estimate scales the local rate by the broker's consumer count
+ * over the local one; that assumes consumers drain at similar rates. An instance without running
+ * consumers has no rate to scale and only applies max-queue-depth. The token bucket keeps the
+ * local rate, each instance admitting in proportion to what its own consumers complete.
+ */
+@Slf4j
+@Component
+public class OrderAdmissionController {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double THROUGHPUT_SMOOTHING = 0.3;
+    private static final List<String> ORDER_LISTENER_IDS = List.of(Defines.MQ.ORDER_LISTENER_ID,
+            Defines.MQ.ORDER_BATCH_LISTENER_ID, Defines.MQ.ORDER_PARTITION_LISTENER_ID);
+
+    private final RabbitAdmin rabbitAdmin;
+    private final RabbitListenerEndpointRegistry listenerRegistry;
+    private final RabbitMqOrderConfig rabbitMqOrderConfig;
+    private final OrderPartitioner orderPartitioner;
+    private final Semaphore inFlight;
+    private final LongAdder completions = new LongAdder();
+    private final Counter admitted;
+    private final Counter rejectedByQueue;
+    private final Counter rejectedByConcurrency;
+    private final Counter rejectedByRate;
+
+    @Value("${order.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rabbitmq.auto-startup:true}")
+    private boolean brokerAvailable;
+
+    @Value("${order.admission.max-queue-depth:50000}")
+    private long maxQueueDepth;
+
+    @Value("${order.admission.max-queue-delay-ms:15000}")
+    private long maxQueueDelayMs;
+
+    @Value("${order.admission.min-rate:50}")
+    private double minRate;
+
+    @Value("${order.admission.headroom:1.2}")
+    private double headroom;
+
+    private final double burst;
+    private final double maxRate;
+    private final int maxConcurrency;
+
+    // token bucket, guarded by this
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    private volatile double rate;
+    private volatile double throughput;
+    private volatile double drainRate;
+    private volatile long queueDepth;
+    private long lastCompletions;
+    private long lastSampleNanos = System.nanoTime();
+
+    public OrderAdmissionController(RabbitAdmin rabbitAdmin,
+                                    RabbitListenerEndpointRegistry listenerRegistry,
+                                    RabbitMqOrderConfig rabbitMqOrderConfig,
+                                    OrderPartitioner orderPartitioner,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${order.admission.max-concurrency:200}") int maxConcurrency,
+                                    @Value("${order.admission.burst:4000}") double burst,
+                                    @Value("${order.admission.max-rate:2000}") double maxRate) {
+        this.rabbitAdmin = rabbitAdmin;
+        this.listenerRegistry = listenerRegistry;
+        this.rabbitMqOrderConfig = rabbitMqOrderConfig;
+        this.orderPartitioner = orderPartitioner;
+        this.maxConcurrency = maxConcurrency;
+        this.inFlight = new Semaphore(maxConcurrency);
+        this.burst = burst;
+        this.tokens = burst;
+        this.maxRate = maxRate;
+        this.rate = maxRate;
+
+        this.admitted = Counter.builder("order.admission.admitted")
+                .description("Orders admitted for creation")
+                .register(meterRegistry);
+        this.rejectedByQueue = rejected(meterRegistry, "queue");
+        this.rejectedByConcurrency = rejected(meterRegistry, "concurrency");
+        this.rejectedByRate = rejected(meterRegistry, "rate");
+        Gauge.builder("order.admission.rate", this, controller -> controller.rate)
+                .description("Current token bucket refill rate")
+                .baseUnit("orders/s")
+                .register(meterRegistry);
+        Gauge.builder("order.admission.throughput", this, controller -> controller.throughput)
+                .description("Smoothed rate of orders reaching a terminal status")
+                .baseUnit("orders/s")
+                .register(meterRegistry);
+        Gauge.builder("order.admission.drain-rate", this, controller -> controller.drainRate)
+                .description("Estimated rate at which all consumers drain the order queues")
+                .baseUnit("orders/s")
+                .register(meterRegistry);
+        Gauge.builder("order.admission.queue.depth", this, controller -> controller.queueDepth)
+                .description("Order messages waiting in the broker at the last sample")
+                .register(meterRegistry);
+        Gauge.builder("order.admission.in-flight", this, controller -> controller.maxConcurrency - controller.inFlight.availablePermits())
+                .description("Order submissions currently being processed")
+                .register(meterRegistry);
+    }
+
+    // callers must pair a successful admit with release()
+    public void admit(int orders) {
+        if (!enabled) {
+            return;
+        }
+        long depth = queueDepth;
+        double drainRate = this.drainRate;
+        if (depth > maxQueueDepth || (drainRate > 0 && depth / drainRate * 1000 > maxQueueDelayMs)) {
+            rejectedByQueue.increment(orders);
+            long retryAfter = drainRate > 0 ? (long) Math.ceil(depth / drainRate - maxQueueDelayMs / 1000.0) : 1;
+            throw new AdmissionRejectedException(Defines.Admission.QUEUE_BACKLOG + depth, Math.max(1, retryAfter));
+        }
+        if (!inFlight.tryAcquire()) {
+            rejectedByConcurrency.increment(orders);
+            throw new AdmissionRejectedException(Defines.Admission.CONCURRENCY_LIMIT + maxConcurrency, 1);
+        }
+        long waitNanos = takeTokens(Math.min(orders, burst));
+        if (waitNanos > 0) {
+            inFlight.release();
+            rejectedByRate.increment(orders);
+            throw new AdmissionRejectedException(Defines.Admission.RATE_LIMIT + Math.round(rate),
+                    Math.max(1, (long) Math.ceil(waitNanos / NANOS_PER_SECOND)));
+        }
+        admitted.increment(orders);
+    }
+
+    public void release() {
+        if (enabled) {
+            inFlight.release();
+        }
+    }
+
+    @EventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getStatus() == OrderStatus.COMPLETED || event.getStatus() == OrderStatus.FAILED) {
+            completions.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.admission.sample-interval-ms:1000}")
+    public void sample() {
+        long now = System.nanoTime();
+        long total = completions.sum();
+        double seconds = (now - lastSampleNanos) / NANOS_PER_SECOND;
+        if (seconds > 0) {
+            double current = (total - lastCompletions) / seconds;
+            throughput = THROUGHPUT_SMOOTHING * current + (1 - THROUGHPUT_SMOOTHING) * throughput;
+        }
+        lastCompletions = total;
+        lastSampleNanos = now;
+
+        if (brokerAvailable) {
+            sampleQueues();
+        } else {
+            drainRate = throughput;
+        }
+        // no ready messages means the consumers keep up, so only the configured ceiling applies
+        rate = queueDepth == 0
+                ? maxRate
+                : Math.max(minRate, Math.min(maxRate, throughput * headroom));
+    }
+
+    private synchronized long takeTokens(double requested) {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) / NANOS_PER_SECOND * rate);
+        lastRefillNanos = now;
+        if (tokens >= requested) {
+            tokens -= requested;
+            return 0;
+        }
+        return (long) ((requested - tokens) / rate * NANOS_PER_SECOND);
+    }
+
+    private void sampleQueues() {
+        List<String> queues = new ArrayList<>();
+        queues.add(rabbitMqOrderConfig.getQueue());
+        if (orderPartitioner.isEnabled()) {
+            for (int partition = 0; partition < orderPartitioner.getPartitionCount(); partition++) {
+                queues.add(orderPartitioner.queueName(partition));
+            }
+        }
+        long depth = 0;
+        long brokerConsumers = 0;
+        try {
+            for (String queue : queues) {
+                QueueInformation info = rabbitAdmin.getQueueInfo(queue);
+                if (info != null) {
+                    depth += info.getMessageCount();
+                    brokerConsumers += info.getConsumerCount();
+                }
+            }
+        } catch (AmqpException ex) {
+            // keep the previous sample
+            log.warn(Defines.Admission.DEPTH_SAMPLE_ERROR, ex.getMessage());
+            return;
+        }
+        queueDepth = depth;
+        int localConsumers = localConsumers();
+        drainRate = localConsumers == 0 ? 0 : throughput * Math.max(brokerConsumers, localConsumers) / localConsumers;
+    }
+
+    private int localConsumers() {
+        int consumers = 0;
+        for (String id : ORDER_LISTENER_IDS) {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(id);
+            if (container == null || !container.isRunning()) {
+                continue;
+            }
+            if (container instanceof SimpleMessageListenerContainer simple) {
+                consumers += simple.getActiveConsumerCount();
+            } else if (container instanceof DirectMessageListenerContainer direct) {
+                // the partition factory runs one consumer per queue
+                consumers += direct.getQueueNames().length;
+            }
+        }
+        return consumers;
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("order.admission.rejected")
+                .description("Orders refused by admission control")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.bwagih.orderservice.application.order.saga;
+
+import com.bwagih.orderservice.domain.order.Order;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+@RequiredArgsConstructor
+public class OrderSaga {
+
+    private final List<SagaStep> sagaSteps;
+
+    public CompletableFuture<Void> run(Order order) {
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (SagaStep step : sagaSteps) {
+            chain = chain.thenCompose(ignored -> step.execute(order));
+        }
+        return chain;
+    }
+}
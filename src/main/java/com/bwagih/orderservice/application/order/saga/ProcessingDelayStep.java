@@ -0,0 +1,26 @@
+package com.bwagih.orderservice.application.order.saga;
+
+import com.bwagih.orderservice.domain.order.Order;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@org.springframework.core.annotation.Order(100)
+public class ProcessingDelayStep implements SagaStep {
+
+    private final Executor delayedExecutor;
+
+    public ProcessingDelayStep(@Value("${order.processing.delay-ms:5000}") long delayMs) {
+        // the wait is a timer, no thread is parked while it is pending
+        this.delayedExecutor = CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CompletableFuture<Void> execute(Order order) {
+        return CompletableFuture.runAsync(() -> { }, delayedExecutor);
+    }
+}
@@ -0,0 +1,9 @@
+package com.bwagih.orderservice.application.order.saga;
+
+import com.bwagih.orderservice.domain.order.Order;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface SagaStep {
+    CompletableFuture<Void> execute(Order order);
+}
@@ -0,0 +1,192 @@
+package com.bwagih.orderservice.application.order.stats;
+
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.domain.order.OrderStatusChangedEvent;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrderStatsRepository;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrderStatsRepository.StoredCounts;
+import com.bwagih.orderservice.presentation.dots.OrderStatsDTO;
+import com.bwagih.orderservice.shared.Defines;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Order counts per status and saga status, answered from memory. Creations and this instance's
+ * transitions bump striped counters; a periodic checkpoint folds the unflushed deltas into the shared
+ * summary document and reads back every instance's totals in the same round trip. On startup the
+ * summary is reconciled against an aggregation over the orders collection, which is the only scan.
+ * Only the instance holding the reconcile lease rebuilds the summary, so a rolling restart recounts
+ * once rather than once per instance. A rebuild bumps the summary version; peers checkpointing
+ * against the old version drop their unflushed deltas, which the recount already includes, and
+ * continue from the rebuilt counts. Transitions a peer makes while the scan runs can still be
+ * misplaced, bounded by one checkpoint interval per rebuild.
+ */
+@Slf4j
+@Component
+public class OrderStatistics {
+
+    private final MongoOrderStatsRepository statsRepository;
+    private final Map<OrderStatus, LongAdder> statusCounters = new EnumMap<>(OrderStatus.class);
+    private final Map<SagaStatus, LongAdder> sagaStatusCounters = new EnumMap<>(SagaStatus.class);
+
+    @Value("${order.stats.reconcile-on-startup:true}")
+    private boolean reconcileOnStartup;
+
+    @Value("${order.stats.reconcile-lease-ms:600000}")
+    private long reconcileLeaseMs;
+
+    // version -1 until the summary has been read once
+    private volatile Checkpoint checkpoint = new Checkpoint(Map.of(), -1, Map.of(), null);
+
+    public OrderStatistics(MongoOrderStatsRepository statsRepository) {
+        this.statsRepository = statsRepository;
+        for (OrderStatus status : OrderStatus.values()) {
+            statusCounters.put(status, new LongAdder());
+        }
+        for (SagaStatus sagaStatus : SagaStatus.values()) {
+            sagaStatusCounters.put(sagaStatus, new LongAdder());
+        }
+    }
+
+    public void recordCreated(int orders, OrderStatus status, SagaStatus sagaStatus) {
+        statusCounters.get(status).add(orders);
+        sagaStatusCounters.get(sagaStatus).add(orders);
+    }
+
+    // only local transitions are published as application events, so nothing is counted twice across instances
+    @EventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getPreviousStatus() != null) {
+            statusCounters.get(event.getPreviousStatus()).decrement();
+        }
+        if (event.getPreviousSagaStatus() != null) {
+            sagaStatusCounters.get(event.getPreviousSagaStatus()).decrement();
+        }
+        statusCounters.get(event.getStatus()).increment();
+        sagaStatusCounters.get(event.getSagaStatus()).increment();
+    }
+
+    public OrderStatsDTO snapshot() {
+        Checkpoint current = checkpoint;
+        Map<OrderStatus, Long> statusCounts = new EnumMap<>(OrderStatus.class);
+        long total = 0;
+        for (Map.Entry<OrderStatus, LongAdder> counter : statusCounters.entrySet()) {
+            long count = current.count(MongoOrderStatsRepository.statusKey(counter.getKey()), counter.getValue());
+            statusCounts.put(counter.getKey(), count);
+            total += count;
+        }
+        Map<SagaStatus, Long> sagaStatusCounts = new EnumMap<>(SagaStatus.class);
+        for (Map.Entry<SagaStatus, LongAdder> counter : sagaStatusCounters.entrySet()) {
+            sagaStatusCounts.put(counter.getKey(), current.count(MongoOrderStatsRepository.sagaStatusKey(counter.getKey()), counter.getValue()));
+        }
+        return OrderStatsDTO.builder()
+                .total(total)
+                .status(statusCounts)
+                .sagaStatus(sagaStatusCounts)
+                .checkpointedAt(current.at)
+                .build();
+    }
+
+    // a checkpoint without local deltas still refreshes the totals written by other instances
+    @Scheduled(fixedDelayString = "${order.stats.checkpoint-interval-ms:5000}")
+    public synchronized void checkpoint() {
+        Checkpoint current = checkpoint;
+        Map<String, Long> sums = counterSums();
+        Map<String, Long> deltas = new HashMap<>();
+        sums.forEach((key, sum) -> {
+            long delta = sum - current.flushed.getOrDefault(key, 0L);
+            if (delta != 0) {
+                deltas.put(key, delta);
+            }
+        });
+        try {
+            long version = current.version >= 0 ? current.version : statsRepository.load().version();
+            Optional<StoredCounts> stored = statsRepository.increment(version, deltas);
+            if (stored.isPresent()) {
+                checkpoint = new Checkpoint(stored.get().counts(), stored.get().version(), sums, Instant.now());
+            } else {
+                // rebuilt elsewhere from the orders collection, which already holds the unflushed transitions
+                StoredCounts rebuilt = statsRepository.load();
+                log.info(Defines.Stats.REBUILT_ELSEWHERE, rebuilt.version());
+                checkpoint = new Checkpoint(rebuilt.counts(), rebuilt.version(), sums, Instant.now());
+            }
+        } catch (DataAccessException ex) {
+            // the deltas stay unflushed and go out with the next checkpoint
+            log.warn(Defines.Stats.CHECKPOINT_ERROR, ex.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reconcile() {
+        try {
+            if (!reconcileOnStartup || !statsRepository.acquireReconcileLease(Duration.ofMillis(reconcileLeaseMs))) {
+                checkpoint();
+                return;
+            }
+            Map<String, Long> sums = counterSums();
+            StoredCounts stored = statsRepository.load();
+            Map<String, Long> actual = statsRepository.countOrders();
+            if (!withoutZeros(stored.counts()).equals(withoutZeros(actual))) {
+                log.warn(Defines.Stats.RECONCILED, stored.counts(), actual);
+            }
+            if (statsRepository.replace(stored.version(), actual)) {
+                checkpoint = new Checkpoint(actual, stored.version() + 1, sums, Instant.now());
+            } else {
+                checkpoint();
+            }
+        } catch (DataAccessException ex) {
+            log.warn(Defines.Stats.RECONCILE_ERROR, ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flush() {
+        checkpoint();
+    }
+
+    private Map<String, Long> counterSums() {
+        Map<String, Long> sums = new HashMap<>();
+        statusCounters.forEach((status, counter) -> sums.put(MongoOrderStatsRepository.statusKey(status), counter.sum()));
+        sagaStatusCounters.forEach((sagaStatus, counter) -> sums.put(MongoOrderStatsRepository.sagaStatusKey(sagaStatus), counter.sum()));
+        return sums;
+    }
+
+    private static Map<String, Long> withoutZeros(Map<String, Long> counts) {
+        Map<String, Long> nonZero = new HashMap<>(counts);
+        nonZero.values().removeIf(count -> count == 0);
+        return nonZero;
+    }
+
+    // counts stored at the last checkpoint, paired with the local counter sums they already include
+    private static final class Checkpoint {
+        private final Map<String, Long> stored;
+        private final long version;
+        private final Map<String, Long> flushed;
+        private final Instant at;
+
+        private Checkpoint(Map<String, Long> stored, long version, Map<String, Long> flushed, Instant at) {
+            this.stored = stored;
+            this.version = version;
+            this.flushed = flushed;
+            this.at = at;
+        }
+
+        private long count(String key, LongAdder counter) {
+            return stored.getOrDefault(key, 0L) + counter.sum() - flushed.getOrDefault(key, 0L);
+        }
+    }
+}
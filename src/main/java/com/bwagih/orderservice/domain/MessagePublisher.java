@@ -1,5 +1,13 @@
 package com.bwagih.orderservice.domain;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 public interface MessagePublisher {
     void publish(String exchange, String routingKey, Object message);
+    CompletableFuture<Void> publishAsync(String exchange, String routingKey, Object message);
+    CompletableFuture<Void> publishAsync(String exchange, String routingKey, Object message, Map<String, Object> headers);
+    CompletableFuture<Void> publishAsync(String exchange, String routingKey, Object message, String messageId, Map<String, Object> headers);
+    void publishBatch(String exchange, String routingKey, List<?> messages);
 }
@@ -0,0 +1,14 @@
+package com.bwagih.orderservice.domain.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class BulkSaveResult {
+    private List<Order> saved;
+    private Map<Integer, String> failures;
+}
@@ -1,14 +1,28 @@
 package com.bwagih.orderservice.domain.order;
 
-import com.bwagih.orderservice.infrastructure.order.mongo.OrderProjection;
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import com.bwagih.orderservice.infrastructure.order.mongo.OrderStatusView;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface OrderRepository<ID> {
 
     Order save(Order entity);
+    Order saveWithOutbox(Order entity);
+    BulkSaveResult saveAllWithOutbox(List<Order> entities);
     Optional<Order> findById(ID orderId);
-    List<OrderProjection> findOrdersByStatus(String status);
-    Optional<OrderProjection> findOrderStatusByOrderId(ID orderId);
+    List<Order> findAllById(Collection<ID> orderIds);
+    // returns the order as it was before the transition, empty when it was not eligible
+    Optional<Order> transition(ID orderId, Collection<OrderStatus> from, OrderStatus to, SagaStatus sagaStatus);
+    // returns the ids the updates actually moved; the others were missing or not in an expected status
+    Set<ID> updateStatuses(List<StatusChange<ID>> changes);
+    List<OrderStatusView> findOrdersByStatus(OrderStatus status, ID afterOrderId, int limit);
+    Stream<OrderStatusView> streamOrdersByStatus(OrderStatus status);
+    Optional<OrderStatusView> findOrderStatusByOrderId(ID orderId);
+    // ids with no order are simply absent from the result
+    List<OrderStatusView> findOrderStatusesByIds(Collection<ID> orderIds);
 }
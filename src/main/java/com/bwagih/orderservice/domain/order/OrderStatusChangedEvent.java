@@ -0,0 +1,17 @@
+package com.bwagih.orderservice.domain.order;
+
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusChangedEvent {
+    private String orderId;
+    private OrderStatus previousStatus;
+    private SagaStatus previousSagaStatus;
+    private OrderStatus status;
+    private SagaStatus sagaStatus;
+}
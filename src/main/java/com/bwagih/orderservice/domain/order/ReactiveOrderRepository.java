@@ -0,0 +1,16 @@
+package com.bwagih.orderservice.domain.order;
+
+import com.bwagih.orderservice.infrastructure.order.mongo.OrderStatusView;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface ReactiveOrderRepository<ID> {
+
+    Mono<Order> saveWithOutbox(Order entity);
+    Flux<OrderStatusView> findOrdersByStatus(OrderStatus status, ID afterOrderId, int limit);
+    Flux<OrderStatusView> streamOrdersByStatus(OrderStatus status);
+    Mono<OrderStatusView> findOrderStatusByOrderId(ID orderId);
+    Flux<OrderStatusView> findOrderStatusesByIds(Collection<ID> orderIds);
+}
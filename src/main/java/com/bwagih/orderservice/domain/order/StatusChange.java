@@ -0,0 +1,16 @@
+package com.bwagih.orderservice.domain.order;
+
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+
+@Getter
+@AllArgsConstructor
+public class StatusChange<ID> {
+    private Collection<ID> orderIds;
+    private Collection<OrderStatus> expectedStatuses;
+    private OrderStatus status;
+    private SagaStatus sagaStatus;
+}
@@ -2,12 +2,20 @@ package com.bwagih.orderservice.infrastructure;
 
 import com.bwagih.orderservice.shared.Defines;
 import com.bwagih.orderservice.domain.MessagePublisher;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
 
 @Slf4j
 @Service
@@ -15,20 +23,133 @@ import org.springframework.stereotype.Service;
 public class RabbitMQPublisher implements MessagePublisher {
     private final RabbitTemplate rabbitTemplate;
 
+    @Value("${rabbitmq.publisher.max-in-flight:1000}")
+    private int maxInFlight;
+
+    @Value("${rabbitmq.publisher.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${rabbitmq.publisher.retry-backoff-ms:100}")
+    private long retryBackoffMs;
+
+    @Value("${rabbitmq.publisher.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    private Semaphore inFlight;
+
+    @PostConstruct
+    public void init() {
+        inFlight = new Semaphore(maxInFlight);
+    }
 
     @Override
     public void publish(String exchange, String routingKey, Object message) {
+        try {
+            publishAsync(exchange, routingKey, message).get();
+            log.debug(Defines.MQ.MESSAGE_PUBLISHED, exchange, routingKey, message);
+        } catch (ExecutionException ex) {
+            log.error(Defines.MQ.MESSAGE_PUBLISH_ERROR, exchange, routingKey, ex.getCause().getMessage(), ex.getCause());
+            throw ex.getCause() instanceof AmqpException amqpException
+                    ? amqpException
+                    : new AmqpException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException(ex);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(String exchange, String routingKey, Object message) {
+        return publishAsync(exchange, routingKey, message, Map.of());
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(String exchange, String routingKey, Object message, Map<String, Object> headers) {
+        return publishAsync(exchange, routingKey, message, null, headers);
+    }
+
+    // callers that may publish the same logical message again pass a stable message id
+    @Override
+    public CompletableFuture<Void> publishAsync(String exchange, String routingKey, Object message, String messageId,
+                                                Map<String, Object> headers) {
         if (message == null) {
             throw new IllegalArgumentException(Defines.MQ.INVALID_MESSAGE);
         }
 
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            if (!inFlight.tryAcquire(confirmTimeoutMs, TimeUnit.MILLISECONDS)) {
+                result.completeExceptionally(new AmqpException(Defines.MQ.IN_FLIGHT_LIMIT_REACHED + maxInFlight));
+                return result;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(new AmqpException(ex));
+            return result;
+        }
+
+        result.whenComplete((ignored, ex) -> inFlight.release());
+        // the message id survives nack retries and broker redeliveries, so consumers can dedup on it
+        send(exchange, routingKey, message, headers, messageId == null ? UUID.randomUUID().toString() : messageId, 0, result);
+        return result;
+    }
+
+    @Override
+    public void publishBatch(String exchange, String routingKey, List<?> messages) {
+        if (messages == null || messages.contains(null)) {
+            throw new IllegalArgumentException(Defines.MQ.INVALID_MESSAGE);
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        // all messages go out before the first confirm is awaited
+        CompletableFuture<?>[] confirms = messages.stream()
+                .map(message -> publishAsync(exchange, routingKey, message))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(confirms).join();
+            log.info(Defines.MQ.BATCH_PUBLISHED, messages.size(), exchange, routingKey);
+        } catch (CompletionException ex) {
+            log.error(Defines.MQ.MESSAGE_PUBLISH_ERROR, exchange, routingKey, ex.getCause().getMessage(), ex.getCause());
+            throw ex.getCause() instanceof AmqpException amqpException
+                    ? amqpException
+                    : new AmqpException(ex.getCause());
+        }
+    }
+
+    private void send(String exchange, String routingKey, Object message, Map<String, Object> headers,
+                      String messageId, int attempt, CompletableFuture<Void> result) {
+        CorrelationData correlationData = new CorrelationData(UUID.randomUUID().toString());
         try {
-            rabbitTemplate.convertAndSend(exchange, routingKey, message);
-            log.info(Defines.MQ.MESSAGE_PUBLISHED,
-                    exchange, routingKey, message);
+            rabbitTemplate.convertAndSend(exchange, routingKey, message, amqpMessage -> {
+                amqpMessage.getMessageProperties().setMessageId(messageId);
+                headers.forEach(amqpMessage.getMessageProperties()::setHeader);
+                return amqpMessage;
+            }, correlationData);
         } catch (AmqpException ex) {
-            log.error(Defines.MQ.MESSAGE_PUBLISH_ERROR, exchange, routingKey, ex.getMessage(), ex);
-            throw ex;
+            result.completeExceptionally(ex);
+            return;
         }
+
+        correlationData.getFuture()
+                .orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((confirm, ex) -> {
+                    if (ex != null) {
+                        result.completeExceptionally(new AmqpException(Defines.MQ.CONFIRM_TIMEOUT + correlationData.getId(), ex));
+                    } else if (correlationData.getReturned() != null) {
+                        result.completeExceptionally(new AmqpException(Defines.MQ.MESSAGE_RETURNED
+                                + correlationData.getReturned().getReplyText()));
+                    } else if (confirm.isAck()) {
+                        result.complete(null);
+                    } else if (attempt < maxRetries) {
+                        log.warn(Defines.MQ.MESSAGE_NACKED, exchange, routingKey, confirm.getReason(), attempt + 1);
+                        // resend off the connection thread that delivered the nack
+                        Executor delayed = CompletableFuture.delayedExecutor(retryBackoffMs * (attempt + 1), TimeUnit.MILLISECONDS);
+                        delayed.execute(() -> send(exchange, routingKey, message, headers, messageId, attempt + 1, result));
+                    } else {
+                        result.completeExceptionally(new AmqpException(Defines.MQ.MESSAGE_NACK_EXHAUSTED + confirm.getReason()));
+                    }
+                });
     }
 }
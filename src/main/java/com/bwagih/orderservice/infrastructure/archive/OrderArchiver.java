@@ -0,0 +1,78 @@
+package com.bwagih.orderservice.infrastructure.archive;
+
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrder;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrderRepository;
+import com.bwagih.orderservice.shared.Defines;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Moves COMPLETED/FAILED orders that have not changed for min-age-ms from the orders collection to
+ * orders_archive, so the hot collection and its indexes only carry live orders. Documents are copied
+ * as raw BSON (lossless) with idempotent upserts, then deleted; a crash in between leaves a duplicate
+ * that lookups resolve to the hot copy and the next batch overwrites.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "order.archive.enabled", havingValue = "true")
+public class OrderArchiver {
+
+    private final MongoTemplate mongoTemplate;
+    private final Counter archived;
+
+    @Value("${order.archive.min-age-ms:604800000}")
+    private long minAgeMs;
+
+    @Value("${order.archive.batch-size:500}")
+    private int batchSize;
+
+    public OrderArchiver(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.archived = Counter.builder("order.archive.moved")
+                .description("Terminal orders moved to the archive collection")
+                .register(meterRegistry);
+    }
+
+    // a single batch per tick is the throttle, and keeps the shared scheduler thread free for the relay
+    @Scheduled(fixedDelayString = "${order.archive.interval-ms:1000}")
+    public void archive() {
+        Instant cutoff = Instant.now().minusMillis(minAgeMs);
+        try {
+            List<Document> batch = mongoTemplate.find(MongoOrderRepository.archivableQuery(cutoff, batchSize),
+                    Document.class, MongoOrder.COLLECTION);
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            BulkOperations copy = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MongoOrder.ARCHIVE_COLLECTION);
+            List<Object> ids = new ArrayList<>(batch.size());
+            for (Document order : batch) {
+                ids.add(order.get("_id"));
+                copy.replaceOne(new Query(Criteria.where("_id").is(order.get("_id"))), order, FindAndReplaceOptions.options().upsert());
+            }
+            copy.execute();
+
+            long deleted = mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), MongoOrder.COLLECTION).getDeletedCount();
+            archived.increment(deleted);
+            log.debug(Defines.Archive.ARCHIVED, deleted, cutoff);
+        } catch (DataAccessException ex) {
+            log.warn(Defines.Archive.ARCHIVE_ERROR, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.bwagih.orderservice.infrastructure.aspect;
+
+import com.bwagih.orderservice.shared.Defines;
+import com.bwagih.orderservice.shared.annotations.MeasureExecutionTime;
+import io.micrometer.core.instrument.Tag;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Prometheus rejects a meter name registered with different tag key sets, so a clash fails startup
+// instead of the first scrape after the second method runs
+@Component
+public class MeasuredMethodValidator implements BeanPostProcessor {
+
+    private final Map<String, Set<String>> extraTagKeys = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        ReflectionUtils.doWithMethods(AopUtils.getTargetClass(bean), method -> {
+            MeasureExecutionTime annotation = AnnotationUtils.findAnnotation(method, MeasureExecutionTime.class);
+            if (annotation == null) {
+                return;
+            }
+            Set<String> keys = new TreeSet<>();
+            MeasurementAspect.extraTags(annotation).forEach((Tag tag) -> keys.add(tag.getKey()));
+            if (!keys.isEmpty() && annotation.value().isEmpty()) {
+                throw new BeanInitializationException(Defines.Measurement.EXTRA_TAGS_NEED_NAME + method);
+            }
+            String name = MeasurementAspect.metricName(annotation);
+            Set<String> registered = extraTagKeys.putIfAbsent(name, keys);
+            if (registered != null && !registered.equals(keys)) {
+                throw new BeanInitializationException(String.format(Defines.Measurement.TAG_KEYS_MISMATCH, name, registered, keys));
+            }
+        });
+        return bean;
+    }
+}
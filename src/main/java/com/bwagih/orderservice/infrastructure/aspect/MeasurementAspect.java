@@ -1,24 +1,135 @@
 package com.bwagih.orderservice.infrastructure.aspect;
 
+import com.bwagih.orderservice.shared.Defines;
+import com.bwagih.orderservice.shared.annotations.MeasureExecutionTime;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.EmbeddedValueResolverAware;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringValueResolver;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Aspect
 @Component
-public class MeasurementAspect {
+public class MeasurementAspect implements EmbeddedValueResolverAware {
 
     private static final Logger logger = LoggerFactory.getLogger(MeasurementAspect.class);
 
-    @Around("@annotation(com.bwagih.orderservice.shared.annotations.MeasureExecutionTime)")
-    public Object measureExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable {
-        long start = System.currentTimeMillis();
-        Object proceed = joinPoint.proceed();
-        long executionTime = System.currentTimeMillis() - start;
-        logger.info("{} executed in {} ms", joinPoint.getSignature(), executionTime);
+    private static final String DEFAULT_METRIC_NAME = "method.execution";
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final double[] percentiles;
+    private final Duration[] serviceLevelObjectives;
+    private final long slowThresholdNanos;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<Method, Long> slowThresholds = new ConcurrentHashMap<>();
+    private StringValueResolver valueResolver;
+
+    public MeasurementAspect(MeterRegistry meterRegistry,
+                             @Value("${measurement.percentiles:0.5,0.95,0.99}") double[] percentiles,
+                             @Value("${measurement.slo-ms:50,100,250,500,1000}") long[] sloMillis,
+                             @Value("${measurement.slow-threshold-ms:1000}") long slowThresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.percentiles = percentiles;
+        this.serviceLevelObjectives = Arrays.stream(sloMillis).mapToObj(Duration::ofMillis).toArray(Duration[]::new);
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+    }
+
+    @Override
+    public void setEmbeddedValueResolver(StringValueResolver resolver) {
+        this.valueResolver = resolver;
+    }
+
+    @Around("@annotation(measureExecutionTime)")
+    public Object measureExecutionTime(ProceedingJoinPoint joinPoint, MeasureExecutionTime measureExecutionTime) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        // resolved before the call, so a malformed threshold fails the caller instead of a future callback
+        slowThresholdNanos(method, measureExecutionTime);
+        long start = System.nanoTime();
+        Object proceed;
+        try {
+            proceed = joinPoint.proceed();
+        } catch (Throwable ex) {
+            record(method, measureExecutionTime, ex, System.nanoTime() - start);
+            throw ex;
+        }
+
+        // asynchronous methods are timed until their future completes, not until they return it
+        if (proceed instanceof CompletableFuture<?> future) {
+            future.whenComplete((ignored, ex) -> record(method, measureExecutionTime, unwrap(ex), System.nanoTime() - start));
+        } else {
+            record(method, measureExecutionTime, null, System.nanoTime() - start);
+        }
         return proceed;
     }
+
+    private void record(Method method, MeasureExecutionTime annotation, Throwable ex, long elapsedNanos) {
+        Class<?> exceptionType = ex == null ? null : ex.getClass();
+        timers.computeIfAbsent(new TimerKey(method, exceptionType), key -> register(key, annotation))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        if (elapsedNanos >= slowThresholdNanos(method, annotation)) {
+            logger.warn(Defines.Measurement.SLOW_EXECUTION, method.getDeclaringClass().getSimpleName(), method.getName(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+
+    private Timer register(TimerKey key, MeasureExecutionTime annotation) {
+        Tags tags = Tags.of(
+                "class", key.method().getDeclaringClass().getSimpleName(),
+                "method", key.method().getName(),
+                "outcome", key.exceptionType() == null ? "SUCCESS" : "ERROR",
+                "exception", key.exceptionType() == null ? NO_EXCEPTION : key.exceptionType().getSimpleName());
+
+        return Timer.builder(metricName(annotation))
+                .tags(tags.and(extraTags(annotation)))
+                .publishPercentiles(percentiles)
+                .serviceLevelObjectives(serviceLevelObjectives)
+                .register(meterRegistry);
+    }
+
+    long slowThresholdNanos(Method method, MeasureExecutionTime annotation) {
+        return slowThresholds.computeIfAbsent(method, key -> annotation.slowThresholdMs().isEmpty()
+                ? slowThresholdNanos
+                : TimeUnit.MILLISECONDS.toNanos(Long.parseLong(valueResolver.resolveStringValue(annotation.slowThresholdMs()).trim())));
+    }
+
+    static String metricName(MeasureExecutionTime annotation) {
+        return annotation.value().isEmpty() ? DEFAULT_METRIC_NAME : annotation.value();
+    }
+
+    static Tags extraTags(MeasureExecutionTime annotation) {
+        Tags tags = Tags.empty();
+        for (String extraTag : annotation.extraTags()) {
+            int separator = extraTag.indexOf('=');
+            if (separator > 0) {
+                tags = tags.and(extraTag.substring(0, separator), extraTag.substring(separator + 1));
+            }
+        }
+        return tags;
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    private record TimerKey(Method method, Class<?> exceptionType) {
+    }
 }
@@ -0,0 +1,7 @@
+package com.bwagih.orderservice.infrastructure.autoscale;
+
+public enum AutoscalerAction {
+    NONE,
+    SCALE_UP,
+    SCALE_DOWN
+}
@@ -0,0 +1,20 @@
+package com.bwagih.orderservice.infrastructure.autoscale;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+public class AutoscalerState {
+    private String listenerId;
+    private int consumers;
+    private int prefetch;
+    private long queueDepth;
+    private double utilization;
+    private double latencyMs;
+    private AutoscalerAction lastAction;
+    private String lastReason;
+    private Instant lastDecisionAt;
+}
@@ -0,0 +1,242 @@
+package com.bwagih.orderservice.infrastructure.autoscale;
+
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.shared.Defines;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Replaces the container's own consumer heuristics for the order listener. Every tick samples the
+ * queue depth and the listener's timer (processOrder, or processOrders in batch mode). Latency is
+ * judged after subtracting order.processing.delay-ms, which every saga waits out however loaded
+ * the service is: a backlog with healthy latency adds consumers, while latency above target or an
+ * idle queue gives consumers back. Prefetch stays at rabbitmq.prefetch-count: it is negotiated when
+ * a consumer's channel opens, and renegotiating it would mean cycling every consumer, requeuing the
+ * unacked messages the async sagas are still working on. Each consumer brings its own prefetch
+ * window, so the consumer count alone bounds in-flight messages. A direction must hold for several
+ * consecutive ticks and changes are followed by a cooldown, so a single noisy sample never moves
+ * the pool.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "rabbitmq.autoscaler.enabled", havingValue = "true")
+public class ConsumerAutoscaler {
+
+    private static final String LATENCY_METRIC = "method.execution";
+    private static final List<String> LISTENER_IDS = List.of(Defines.MQ.ORDER_LISTENER_ID, Defines.MQ.ORDER_BATCH_LISTENER_ID);
+
+    private final RabbitListenerEndpointRegistry listenerRegistry;
+    private final RabbitAdmin rabbitAdmin;
+    private final RabbitMqOrderConfig rabbitMqOrderConfig;
+    private final MeterRegistry meterRegistry;
+    private final Map<AutoscalerAction, Counter> decisions = new EnumMap<>(AutoscalerAction.class);
+
+    @Value("${rabbitmq.autoscaler.min-consumers:${rabbitmq.initial-consumer-count:2}}")
+    private int minConsumers;
+
+    @Value("${rabbitmq.autoscaler.max-consumers:${rabbitmq.max-consumer-count:10}}")
+    private int maxConsumers;
+
+    @Value("${rabbitmq.autoscaler.scale-up-depth:1000}")
+    private long scaleUpDepth;
+
+    @Value("${rabbitmq.autoscaler.scale-down-depth:100}")
+    private long scaleDownDepth;
+
+    @Value("${rabbitmq.autoscaler.latency-target-ms:500}")
+    private double latencyTargetMs;
+
+    @Value("${rabbitmq.autoscaler.low-utilization:0.3}")
+    private double lowUtilization;
+
+    @Value("${rabbitmq.autoscaler.scale-up-ticks:2}")
+    private int scaleUpTicks;
+
+    @Value("${rabbitmq.autoscaler.scale-down-ticks:6}")
+    private int scaleDownTicks;
+
+    @Value("${rabbitmq.autoscaler.cooldown-ms:10000}")
+    private long cooldownMs;
+
+    @Value("${order.processing.delay-ms:5000}")
+    private long processingDelayMs;
+
+    // sampling state, only touched by the scheduler thread
+    private int consumers;
+    private int upTicks;
+    private int downTicks;
+    private long lastChangeAt;
+    private long lastSampleAt;
+    private long lastCount;
+    private double lastTotalMs;
+    private boolean initialized;
+
+    private final int prefetch;
+    private volatile AutoscalerState state;
+
+    public ConsumerAutoscaler(RabbitListenerEndpointRegistry listenerRegistry,
+                              RabbitAdmin rabbitAdmin,
+                              RabbitMqOrderConfig rabbitMqOrderConfig,
+                              MeterRegistry meterRegistry,
+                              @Value("${rabbitmq.initial-consumer-count:2}") int initialConsumers,
+                              @Value("${rabbitmq.prefetch-count:250}") int prefetch) {
+        this.listenerRegistry = listenerRegistry;
+        this.rabbitAdmin = rabbitAdmin;
+        this.rabbitMqOrderConfig = rabbitMqOrderConfig;
+        this.meterRegistry = meterRegistry;
+        this.consumers = initialConsumers;
+        this.prefetch = prefetch;
+        this.state = new AutoscalerState(null, initialConsumers, prefetch, 0, 0, 0,
+                AutoscalerAction.NONE, null, null);
+
+        for (AutoscalerAction action : AutoscalerAction.values()) {
+            decisions.put(action, Counter.builder("order.autoscaler.decisions")
+                    .description("Consumer autoscaler decisions by action")
+                    .tag("action", action.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("order.autoscaler.consumers", this, autoscaler -> autoscaler.state.getConsumers())
+                .description("Consumers currently assigned to the order listener")
+                .register(meterRegistry);
+        Gauge.builder("order.autoscaler.queue.depth", this, autoscaler -> autoscaler.state.getQueueDepth())
+                .description("Ready messages in the order queue at the last sample")
+                .register(meterRegistry);
+        Gauge.builder("order.autoscaler.utilization", this, autoscaler -> autoscaler.state.getUtilization())
+                .description("Estimated share of consumer in-flight capacity in use")
+                .register(meterRegistry);
+        Gauge.builder("order.autoscaler.latency", this, autoscaler -> autoscaler.state.getLatencyMs())
+                .description("Mean order listener latency over the last sample window, beyond the fixed saga delay")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public AutoscalerState getState() {
+        return state;
+    }
+
+    @Scheduled(fixedDelayString = "${rabbitmq.autoscaler.interval-ms:5000}")
+    public void adjust() {
+        SimpleMessageListenerContainer container = activeContainer();
+        if (container == null) {
+            return;
+        }
+        QueueInformation queue = rabbitAdmin.getQueueInfo(rabbitMqOrderConfig.getQueue());
+        if (queue == null) {
+            return;
+        }
+        if (!initialized) {
+            // pin the pool so the container's built-in scaling does not fight the autoscaler
+            int pinned = Math.max(minConsumers, Math.min(maxConsumers, consumers));
+            applyConsumers(container, consumers, pinned);
+            consumers = pinned;
+            initialized = true;
+        }
+
+        // a batch consumer works on one batch at a time, each sample of its timer is a whole batch
+        boolean batch = Defines.MQ.ORDER_BATCH_LISTENER_ID.equals(container.getListenerId());
+        long now = System.nanoTime();
+        long count = 0;
+        double totalMs = 0;
+        for (Timer timer : meterRegistry.find(LATENCY_METRIC).tags(batch
+                ? Tags.of("class", Defines.MQ.ORDER_BATCH_LISTENER_CLASS, "method", Defines.MQ.ORDER_BATCH_LISTENER_METHOD)
+                : Tags.of("class", Defines.MQ.ORDER_LISTENER_CLASS, "method", Defines.MQ.ORDER_LISTENER_METHOD)).timers()) {
+            count += timer.count();
+            totalMs += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+        long completed = count - lastCount;
+        double windowSeconds = lastSampleAt == 0 ? 0 : (now - lastSampleAt) / 1e9;
+        double meanMs = completed > 0 ? (totalMs - lastTotalMs) / completed : 0;
+        double latencyMs = Math.max(0, meanMs - processingDelayMs);
+        // Little's law: average in-flight sagas (or batches) = throughput * latency, the delay included
+        double inFlight = windowSeconds > 0 ? completed / windowSeconds * meanMs / 1000 : 0;
+        double capacity = batch ? consumers : (double) consumers * prefetch;
+        double utilization = Math.min(1, inFlight / Math.max(1, capacity));
+        lastSampleAt = now;
+        lastCount = count;
+        lastTotalMs = totalMs;
+
+        long depth = queue.getMessageCount();
+        boolean overloaded = latencyMs > latencyTargetMs;
+        boolean backlog = depth > scaleUpDepth && !overloaded;
+        boolean idle = depth <= scaleDownDepth && utilization < lowUtilization;
+
+        upTicks = backlog ? upTicks + 1 : 0;
+        downTicks = overloaded || idle ? downTicks + 1 : 0;
+
+        AutoscalerAction action = AutoscalerAction.NONE;
+        String reason = null;
+        boolean coolingDown = now - lastChangeAt < TimeUnit.MILLISECONDS.toNanos(cooldownMs) && lastChangeAt != 0;
+        if (!coolingDown && upTicks >= scaleUpTicks) {
+            if (consumers < maxConsumers) {
+                // grow multiplicatively so a burst is absorbed within a few ticks
+                int target = Math.min(maxConsumers, consumers + Math.max(1, consumers / 2));
+                applyConsumers(container, consumers, target);
+                consumers = target;
+                action = AutoscalerAction.SCALE_UP;
+            }
+            reason = String.format(Defines.MQ.AUTOSCALER_BACKLOG, depth, latencyMs);
+        } else if (!coolingDown && downTicks >= scaleDownTicks) {
+            if (consumers > minConsumers) {
+                applyConsumers(container, consumers, consumers - 1);
+                consumers--;
+                action = AutoscalerAction.SCALE_DOWN;
+            }
+            reason = overloaded
+                    ? String.format(Defines.MQ.AUTOSCALER_OVERLOADED, latencyMs, latencyTargetMs)
+                    : String.format(Defines.MQ.AUTOSCALER_IDLE, depth, utilization);
+        }
+
+        if (action != AutoscalerAction.NONE) {
+            lastChangeAt = now;
+            upTicks = 0;
+            downTicks = 0;
+            log.info(Defines.MQ.AUTOSCALER_DECISION, action, consumers, reason);
+        }
+        decisions.get(action).increment();
+        AutoscalerState previous = state;
+        state = new AutoscalerState(container.getListenerId(), consumers, prefetch, depth, utilization, latencyMs,
+                action == AutoscalerAction.NONE ? previous.getLastAction() : action,
+                action == AutoscalerAction.NONE ? previous.getLastReason() : reason,
+                action == AutoscalerAction.NONE ? previous.getLastDecisionAt() : Instant.now());
+    }
+
+    private SimpleMessageListenerContainer activeContainer() {
+        for (String id : LISTENER_IDS) {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(id);
+            if (container instanceof SimpleMessageListenerContainer simple && simple.isRunning()) {
+                return simple;
+            }
+        }
+        return null;
+    }
+
+    // the container asserts concurrent <= max on every call, so the setter order depends on the direction
+    private static void applyConsumers(SimpleMessageListenerContainer container, int current, int target) {
+        if (target > current) {
+            container.setMaxConcurrentConsumers(target);
+            container.setConcurrentConsumers(target);
+        } else {
+            container.setConcurrentConsumers(target);
+            container.setMaxConcurrentConsumers(target);
+        }
+    }
+}
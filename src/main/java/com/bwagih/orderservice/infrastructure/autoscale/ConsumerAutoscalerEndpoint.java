@@ -0,0 +1,21 @@
+package com.bwagih.orderservice.infrastructure.autoscale;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "consumerautoscaler")
+@ConditionalOnProperty(name = "rabbitmq.autoscaler.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ConsumerAutoscalerEndpoint {
+
+    private final ConsumerAutoscaler consumerAutoscaler;
+
+    @ReadOperation
+    public AutoscalerState state() {
+        return consumerAutoscaler.getState();
+    }
+}
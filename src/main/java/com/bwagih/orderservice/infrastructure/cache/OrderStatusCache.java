@@ -0,0 +1,72 @@
+package com.bwagih.orderservice.infrastructure.cache;
+
+import com.bwagih.orderservice.domain.order.OrderStatusChangedEvent;
+import com.bwagih.orderservice.infrastructure.order.mongo.OrderStatusView;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/*
+ * Order statuses by order id, never staler than the last local transition. Loads are inserted as
+ * pending futures before they read from Mongo, so a transition evicting the entry mid-load removes
+ * the pending future and the completed load is not written back. Callers only read through the
+ * loaders below; there is deliberately no put. Loads run on the calling thread.
+ */
+@Component
+public class OrderStatusCache {
+
+    private final AsyncCache<String, OrderStatusView> cache;
+
+    public OrderStatusCache(@Value("${order.status-cache.maximum-size:100000}") long maximumSize,
+                            @Value("${order.status-cache.expire-after-write-ms:5000}") long expireAfterWriteMs,
+                            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .executor(Runnable::run)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "orderStatus");
+    }
+
+    // a loader returning null leaves nothing cached
+    public OrderStatusView get(String orderId, Function<String, OrderStatusView> loader) {
+        return cache.synchronous().get(orderId, loader);
+    }
+
+    // the loader sees only the uncached ids, ids missing from its result are left uncached
+    public Map<String, OrderStatusView> getAll(Set<String> orderIds,
+                                               Function<Set<String>, Map<String, OrderStatusView>> loader) {
+        return cache.synchronous().getAll(orderIds, ids -> loader.apply(Set.copyOf(ids)));
+    }
+
+    // non-blocking variants, the returned futures are shared with concurrent readers and must not be cancelled
+    public CompletableFuture<OrderStatusView> getAsync(String orderId,
+                                                       Function<String, CompletableFuture<OrderStatusView>> loader) {
+        return cache.get(orderId, (id, executor) -> loader.apply(id));
+    }
+
+    public CompletableFuture<Map<String, OrderStatusView>> getAllAsync(Set<String> orderIds,
+                                                                       Function<Set<String>, CompletableFuture<Map<String, OrderStatusView>>> loader) {
+        return cache.getAll(orderIds, (ids, executor) -> loader.apply(Set.copyOf(ids)));
+    }
+
+    public void evict(String orderId) {
+        cache.synchronous().invalidate(orderId);
+    }
+
+    @EventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        evict(event.getOrderId());
+    }
+}
@@ -0,0 +1,128 @@
+package com.bwagih.orderservice.infrastructure.codec;
+
+import org.bson.types.ObjectId;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/*
+ * Order ids travel as a one-byte format tag followed by the raw id: 12 bytes for an ObjectId,
+ * 16 for a UUID, UTF-8 for anything else. Everything that is not a bare id, and every inbound
+ * message without the compact content type (e.g. JSON already sitting in the queue), goes
+ * through the delegate. Decoding always accepts both forms; whether ids are sent compact is a
+ * separate switch, so every consumer can read compact messages before any producer sends them.
+ */
+public class CompactOrderMessageConverter implements MessageConverter {
+
+    public static final String CONTENT_TYPE = "application/vnd.order-id";
+
+    static final byte FORMAT_OBJECT_ID = 1;
+    static final byte FORMAT_UUID = 2;
+    static final byte FORMAT_UTF8 = 3;
+
+    private static final int UUID_LENGTH = 36;
+    private static final int OBJECT_ID_BYTES = 12;
+    private static final int UUID_BYTES = 16;
+    private static final String INVALID_BODY = "Empty compact order message";
+    private static final String UNKNOWN_FORMAT = "Unknown compact order message format: ";
+    private static final String INVALID_LENGTH = "Compact order message of format %d has %d id bytes, expected %d";
+    private static final String DECODE_ERROR = "Undecodable compact order message of format ";
+
+    private final MessageConverter delegate;
+    private final boolean compactOutbound;
+
+    public CompactOrderMessageConverter(MessageConverter delegate, boolean compactOutbound) {
+        this.delegate = delegate;
+        this.compactOutbound = compactOutbound;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (!compactOutbound || !(object instanceof String orderId)) {
+            return delegate.toMessage(object, messageProperties);
+        }
+        byte[] body = encode(orderId);
+        messageProperties.setContentType(CONTENT_TYPE);
+        messageProperties.setContentLength(body.length);
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        if (!CONTENT_TYPE.equals(message.getMessageProperties().getContentType())) {
+            return delegate.fromMessage(message);
+        }
+        return decode(message.getBody());
+    }
+
+    static byte[] encode(String orderId) {
+        if (orderId.length() == 24 && isLowerHex(orderId)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 + OBJECT_ID_BYTES).put(FORMAT_OBJECT_ID);
+            new ObjectId(orderId).putToByteBuffer(buffer);
+            return buffer.array();
+        }
+        if (orderId.length() == UUID_LENGTH) {
+            UUID uuid = parseCanonicalUuid(orderId);
+            if (uuid != null) {
+                return ByteBuffer.allocate(1 + UUID_BYTES).put(FORMAT_UUID)
+                        .putLong(uuid.getMostSignificantBits())
+                        .putLong(uuid.getLeastSignificantBits())
+                        .array();
+            }
+        }
+        byte[] utf8 = orderId.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(utf8.length + 1).put(FORMAT_UTF8).put(utf8).array();
+    }
+
+    // a truncated or padded body is rejected like any other unreadable message, never half-decoded
+    static String decode(byte[] body) {
+        if (body.length == 0) {
+            throw new MessageConversionException(INVALID_BODY);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(body, 1, body.length - 1);
+        try {
+            return switch (body[0]) {
+                case FORMAT_OBJECT_ID -> new ObjectId(requireLength(buffer, body[0], OBJECT_ID_BYTES)).toHexString();
+                case FORMAT_UUID -> new UUID(requireLength(buffer, body[0], UUID_BYTES).getLong(), buffer.getLong()).toString();
+                case FORMAT_UTF8 -> new String(body, 1, body.length - 1, StandardCharsets.UTF_8);
+                default -> throw new MessageConversionException(UNKNOWN_FORMAT + body[0]);
+            };
+        } catch (RuntimeException ex) {
+            throw ex instanceof MessageConversionException conversionException
+                    ? conversionException
+                    : new MessageConversionException(DECODE_ERROR + body[0], ex);
+        }
+    }
+
+    private static ByteBuffer requireLength(ByteBuffer buffer, byte format, int length) {
+        if (buffer.remaining() != length) {
+            throw new MessageConversionException(INVALID_LENGTH.formatted(format, buffer.remaining(), length));
+        }
+        return buffer;
+    }
+
+    // only canonical (lower-case) ids are packed, so decoding always yields the original string
+    private static boolean isLowerHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static UUID parseCanonicalUuid(String value) {
+        try {
+            UUID uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
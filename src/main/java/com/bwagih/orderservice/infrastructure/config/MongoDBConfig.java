@@ -1,10 +1,13 @@
 package com.bwagih.orderservice.infrastructure.config;
 
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrder;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.core.MongoTemplate;
 
+import java.util.List;
+
 @Configuration
 @RequiredArgsConstructor
 public class MongoDBConfig {
@@ -12,8 +15,10 @@ public class MongoDBConfig {
 
     @PostConstruct
     public void createCollections() {
-        if (!mongoTemplate.collectionExists("orders")) {
-            mongoTemplate.createCollection("orders");
+        for (String collection : List.of(MongoOrder.COLLECTION, MongoOrder.ARCHIVE_COLLECTION)) {
+            if (!mongoTemplate.collectionExists(collection)) {
+                mongoTemplate.createCollection(collection);
+            }
         }
 
     }
@@ -0,0 +1,103 @@
+package com.bwagih.orderservice.infrastructure.config;
+
+import com.bwagih.orderservice.infrastructure.idempotency.ProcessedMessageStore;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrder;
+import com.bwagih.orderservice.shared.Defines;
+import com.mongodb.MongoCommandException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexBootstrapper {
+
+    // only indexes carrying this prefix are owned (and therefore dropped) by the bootstrapper
+    static final String MANAGED_PREFIX = "ix_";
+
+    private static final Set<Integer> INDEX_CONFLICT_CODES = Set.of(85, 86);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${order.dedup.ttl-ms:86400000}")
+    private long dedupTtlMs;
+
+    Map<String, List<Index>> declaredIndexes() {
+        return Map.of("orders", List.of(
+                // serves the status filter on its own and the keyset pagination over _id
+                new Index()
+                        .on("status", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named("ix_status_id"),
+                // finds terminal orders old enough for the archiver
+                new Index()
+                        .on("status", Sort.Direction.ASC)
+                        .on(MongoOrder.STATUS_CHANGED_AT, Sort.Direction.ASC)
+                        .named("ix_status_changed"),
+                new Index()
+                        .on("outbox.createdAt", Sort.Direction.ASC)
+                        .named("ix_outbox_pending")
+                        .partial(PartialIndexFilter.of(Criteria.where("outbox.status").is("PENDING")))),
+                ProcessedMessageStore.COLLECTION, List.of(
+                // dedup markers expire on their own once a redelivery is no longer plausible
+                new Index()
+                        .on(ProcessedMessageStore.PROCESSED_AT, Sort.Direction.ASC)
+                        .named("ix_processed_ttl")
+                        .expire(Duration.ofMillis(dedupTtlMs))));
+    }
+
+    @PostConstruct
+    public void reconcileIndexes() {
+        declaredIndexes().forEach(this::reconcile);
+    }
+
+    private void reconcile(String collection, List<Index> declared) {
+        IndexOperations indexOps = mongoTemplate.indexOps(collection);
+        for (Index index : declared) {
+            ensure(collection, indexOps, index);
+        }
+
+        Set<String> declaredNames = declared.stream().map(MongoIndexBootstrapper::nameOf).collect(Collectors.toSet());
+        for (IndexInfo existing : indexOps.getIndexInfo()) {
+            if (existing.getName().startsWith(MANAGED_PREFIX) && !declaredNames.contains(existing.getName())) {
+                indexOps.dropIndex(existing.getName());
+                log.info(Defines.Mongo.INDEX_DROPPED, collection, existing.getName());
+            }
+        }
+    }
+
+    private void ensure(String collection, IndexOperations indexOps, Index index) {
+        try {
+            indexOps.ensureIndex(index);
+        } catch (DataAccessException ex) {
+            // same name but different keys or options: the declaration wins
+            if (!(ex.getCause() instanceof MongoCommandException command) || !INDEX_CONFLICT_CODES.contains(command.getErrorCode())) {
+                throw ex;
+            }
+            indexOps.dropIndex(nameOf(index));
+            indexOps.ensureIndex(index);
+            log.info(Defines.Mongo.INDEX_RECREATED, collection, nameOf(index));
+        }
+    }
+
+    private static String nameOf(Index index) {
+        return (String) index.getIndexOptions().get("name");
+    }
+}
@@ -1,23 +1,34 @@
 package com.bwagih.orderservice.infrastructure.config;
 
+import com.bwagih.orderservice.infrastructure.codec.CompactOrderMessageConverter;
+import com.bwagih.orderservice.infrastructure.partition.OrderPartitioner;
+import com.bwagih.orderservice.infrastructure.retry.OrderRetryTiers;
 import lombok.RequiredArgsConstructor;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.DirectRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @RequiredArgsConstructor
 public class RabbitMQConfig {
     private final ApplicationContext applicationContext;
     private final RabbitMqOrderConfig rabbitMqOrderConfig;
+    private final OrderPartitioner orderPartitioner;
+    private final OrderRetryTiers orderRetryTiers;
 
+    // false runs the service without a broker: nothing is declared and no listener starts
     @Value("${rabbitmq.auto-startup:true}")
     private boolean autoStartup;
 
@@ -27,29 +38,74 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.max-consumer-count:10}")
     private int maxConsumerCount;
 
+    @Value("${rabbitmq.prefetch-count:250}")
+    private int prefetchCount;
+
+    @Value("${rabbitmq.batch.size:100}")
+    private int batchSize;
+
+    @Value("${rabbitmq.batch.receive-timeout-ms:200}")
+    private long batchReceiveTimeout;
+
     @Value("${rabbitmq.ttl:30000}")
     private int ttl;
 
+    // what producers send; compact: bare order ids as binary. Consumers read both whatever the setting
+    @Value("${rabbitmq.codec:json}")
+    private String codec;
+
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter messageConverter() {
+        return new CompactOrderMessageConverter(new Jackson2JsonMessageConverter(), "compact".equalsIgnoreCase(codec));
     }
 
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
-                                         Jackson2JsonMessageConverter messageConverter) {
+                                         MessageConverter messageConverter) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(messageConverter);
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
 
     @Bean
-    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,Jackson2JsonMessageConverter messageConverter) {
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,MessageConverter messageConverter) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setConcurrentConsumers(initialConsumerCount);
+        factory.setMaxConcurrentConsumers(maxConsumerCount);
+        // async listeners return a future; manual mode lets the container ack on its completion
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setPrefetchCount(prefetchCount);
+        return factory;
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchRabbitListenerContainerFactory(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(messageConverter);
         factory.setConcurrentConsumers(initialConsumerCount);
         factory.setMaxConcurrentConsumers(maxConsumerCount);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        // a partial batch is delivered once no message arrives within this timeout
+        factory.setReceiveTimeout(batchReceiveTimeout);
+        factory.setPrefetchCount(Math.max(prefetchCount, batchSize));
+        return factory;
+    }
+
+    // one consumer and one unacked message per partition queue keeps each key strictly ordered
+    @Bean
+    public DirectRabbitListenerContainerFactory partitionRabbitListenerContainerFactory(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
+        DirectRabbitListenerContainerFactory factory = new DirectRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setConsumersPerQueue(1);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setPrefetchCount(1);
         return factory;
     }
 
@@ -64,7 +120,9 @@ public class RabbitMQConfig {
     @Bean
     public DirectExchange exchange(RabbitAdmin rabbitAdmin) {
         DirectExchange exchange = new DirectExchange(rabbitMqOrderConfig.getExchange());
-        rabbitAdmin.declareExchange(exchange);
+        if (autoStartup) {
+            rabbitAdmin.declareExchange(exchange);
+        }
         return exchange;
     }
 
@@ -75,28 +133,92 @@ public class RabbitMQConfig {
                 .deadLetterExchange(rabbitMqOrderConfig.getExchange())
                 .deadLetterRoutingKey(rabbitMqOrderConfig.getDlqRoutingKey())
                 .build();
-        rabbitAdmin.declareQueue(queue);
+        if (autoStartup) {
+            rabbitAdmin.declareQueue(queue);
+        }
         return queue;
     }
 
+    @Bean
+    public Declarables orderPartitionQueues(RabbitAdmin rabbitAdmin, DirectExchange exchange) {
+        List<Declarable> declarables = new ArrayList<>();
+        if (!orderPartitioner.isEnabled()) {
+            return new Declarables(declarables);
+        }
+        for (int partition = 0; partition < orderPartitioner.getPartitionCount(); partition++) {
+            // instances may all subscribe to a partition; the broker keeps exactly one of them active
+            Queue queue = QueueBuilder.durable(orderPartitioner.queueName(partition))
+                    .ttl(ttl)
+                    .deadLetterExchange(rabbitMqOrderConfig.getExchange())
+                    .deadLetterRoutingKey(rabbitMqOrderConfig.getDlqRoutingKey())
+                    .singleActiveConsumer()
+                    .build();
+            Binding binding = BindingBuilder.bind(queue).to(exchange).with(orderPartitioner.routingKey(partition));
+            if (autoStartup) {
+                rabbitAdmin.declareQueue(queue);
+                rabbitAdmin.declareBinding(binding);
+            }
+            declarables.add(queue);
+            declarables.add(binding);
+        }
+        return new Declarables(declarables);
+    }
+
+    @Bean
+    public Declarables orderRetryQueues(RabbitAdmin rabbitAdmin, DirectExchange exchange) {
+        List<Declarable> declarables = new ArrayList<>();
+        retryTiers(rabbitAdmin, exchange, rabbitMqOrderConfig.getQueue(), rabbitMqOrderConfig.getRoutingKey(), declarables);
+        if (orderPartitioner.isEnabled()) {
+            for (int partition = 0; partition < orderPartitioner.getPartitionCount(); partition++) {
+                retryTiers(rabbitAdmin, exchange, orderPartitioner.queueName(partition), orderPartitioner.routingKey(partition), declarables);
+            }
+        }
+        return new Declarables(declarables);
+    }
+
+    private void retryTiers(RabbitAdmin rabbitAdmin, DirectExchange exchange, String orderQueue, String orderRoutingKey,
+                            List<Declarable> declarables) {
+        for (int tier = 0; tier < orderRetryTiers.size(); tier++) {
+            // nothing consumes a tier: messages sit out the TTL, then dead-letter back to the queue they came from
+            Queue queue = QueueBuilder.durable(orderRetryTiers.queueName(orderQueue, tier))
+                    .ttl((int) orderRetryTiers.delayMs(tier))
+                    .deadLetterExchange(rabbitMqOrderConfig.getExchange())
+                    .deadLetterRoutingKey(orderRoutingKey)
+                    .build();
+            Binding binding = BindingBuilder.bind(queue).to(exchange).with(orderRetryTiers.routingKey(orderRoutingKey, tier));
+            if (autoStartup) {
+                rabbitAdmin.declareQueue(queue);
+                rabbitAdmin.declareBinding(binding);
+            }
+            declarables.add(queue);
+            declarables.add(binding);
+        }
+    }
+
     @Bean
     public Queue dlqQueue(RabbitAdmin rabbitAdmin) {
         Queue queue = QueueBuilder.durable(rabbitMqOrderConfig.getDlqQueue()).build();
-        rabbitAdmin.declareQueue(queue);
+        if (autoStartup) {
+            rabbitAdmin.declareQueue(queue);
+        }
         return queue;
     }
 
     @Bean
     public Binding orderQueueBinding(RabbitAdmin rabbitAdmin, Queue orderQueue, DirectExchange exchange) {
         Binding binding = BindingBuilder.bind(orderQueue).to(exchange).with(rabbitMqOrderConfig.getRoutingKey());
-        rabbitAdmin.declareBinding(binding);
+        if (autoStartup) {
+            rabbitAdmin.declareBinding(binding);
+        }
         return binding;
     }
 
     @Bean
     public Binding dlqBinding(RabbitAdmin rabbitAdmin, Queue dlqQueue, DirectExchange exchange) {
         Binding binding = BindingBuilder.bind(dlqQueue).to(exchange).with(rabbitMqOrderConfig.getDlqRoutingKey());
-        rabbitAdmin.declareBinding(binding);
+        if (autoStartup) {
+            rabbitAdmin.declareBinding(binding);
+        }
         return binding;
     }
 }
@@ -14,4 +14,5 @@ public class RabbitMqOrderConfig {
     private String routingKey;
     private String dlqQueue;
     private String dlqRoutingKey;
+    private String statusEventRoutingKey;
 }
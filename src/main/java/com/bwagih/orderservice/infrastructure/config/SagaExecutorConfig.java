@@ -0,0 +1,27 @@
+package com.bwagih.orderservice.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class SagaExecutorConfig {
+
+    @Value("${order.saga.executor.pool-size:16}")
+    private int poolSize;
+
+    @Value("${order.saga.executor.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Bean
+    public ThreadPoolTaskExecutor sagaExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("order-saga-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,90 @@
+package com.bwagih.orderservice.infrastructure.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.amqp.rabbit.config.AbstractRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+
+/*
+ * Virtual-thread execution mode (Java 21 runtime, build with -Pjava21): Tomcat requests and the
+ * RabbitMQ listener consumers each get their own virtual thread. Concurrency is then bounded by
+ * pools that really are scarce - a request semaphore sized to the Mongo connection pool and the
+ * channel cache, which becomes a hard limit once a checkout timeout is set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final String SAGA_EXECUTOR = "sagaExecutor";
+    private static final String CHANNEL_CHECKOUT_TIMEOUT = "spring.rabbitmq.cache.channel.checkout-timeout";
+
+    @Value("${order.virtual-threads.max-concurrent-requests:100}")
+    private int maxConcurrentRequests;
+
+    @Value("${order.virtual-threads.acquire-timeout-ms:1000}")
+    private long acquireTimeoutMs;
+
+    @Value("${order.virtual-threads.pinned-threshold-ms:20}")
+    private long pinnedThresholdMs;
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor("http-vt-"));
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter() {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(maxConcurrentRequests, acquireTimeoutMs));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(pinnedThresholdMs));
+    }
+
+    // static: post-processors are instantiated before the rest of this configuration
+    @Bean
+    public static BeanPostProcessor virtualThreadRabbitPostProcessor(Environment environment) {
+        long checkoutTimeoutMs = environment.getProperty("order.virtual-threads.acquire-timeout-ms", Long.class, 1000L);
+        boolean checkoutTimeoutConfigured = environment.containsProperty(CHANNEL_CHECKOUT_TIMEOUT);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractRabbitListenerContainerFactory<?> factory) {
+                    factory.setTaskExecutor(virtualThreadExecutor("rabbit-vt-"));
+                } else if (bean instanceof ThreadPoolTaskExecutor executor && SAGA_EXECUTOR.equals(beanName)) {
+                    // the saga pool size stays the bound; its threads just stop costing a platform thread each
+                    executor.setThreadFactory(VirtualThreads.factory("order-saga-vt-"));
+                } else if (bean instanceof CachingConnectionFactory connectionFactory && !checkoutTimeoutConfigured) {
+                    connectionFactory.setChannelCheckoutTimeout(checkoutTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static SimpleAsyncTaskExecutor virtualThreadExecutor(String namePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(namePrefix);
+        executor.setThreadFactory(VirtualThreads.factory(namePrefix));
+        return executor;
+    }
+}
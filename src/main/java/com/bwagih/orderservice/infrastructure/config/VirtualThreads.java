@@ -0,0 +1,28 @@
+package com.bwagih.orderservice.infrastructure.config;
+
+import com.bwagih.orderservice.shared.Defines;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/*
+ * The service still compiles for Java 17, so the Java 21 virtual-thread API is reached reflectively:
+ * Thread.ofVirtual().name(prefix, 0).factory().
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static ThreadFactory factory(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            Method factory = builderType.getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(Defines.VirtualThreads.UNSUPPORTED_RUNTIME + Runtime.version(), ex);
+        }
+    }
+}
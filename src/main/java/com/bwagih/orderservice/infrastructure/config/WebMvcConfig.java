@@ -0,0 +1,54 @@
+package com.bwagih.orderservice.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Value("${order.stream.executor.pool-size:8}")
+    private int poolSize;
+
+    @Value("${order.stream.timeout-ms:600000}")
+    private long streamTimeoutMs;
+
+    @Value("${order.subscriptions.executor.pool-size:4}")
+    private int subscriptionPoolSize;
+
+    @Value("${order.subscriptions.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    // bounds the number of concurrent NDJSON streams, each holds one Mongo cursor
+    @Bean
+    public ThreadPoolTaskExecutor streamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(poolSize * 4);
+        executor.setThreadNamePrefix("order-stream-");
+        return executor;
+    }
+
+    // writes SSE status events; each subscriber queues at most one drain task, so the queue never outgrows them
+    @Bean
+    public ThreadPoolTaskExecutor subscriptionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(subscriptionPoolSize);
+        executor.setMaxPoolSize(subscriptionPoolSize);
+        executor.setQueueCapacity(maxSubscribers);
+        executor.setThreadNamePrefix("order-sse-");
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamExecutor());
+        configurer.setDefaultTimeout(streamTimeoutMs);
+    }
+}
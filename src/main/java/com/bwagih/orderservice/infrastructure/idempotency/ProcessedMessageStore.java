@@ -0,0 +1,119 @@
+package com.bwagih.orderservice.infrastructure.idempotency;
+
+import com.bwagih.orderservice.shared.Defines;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/*
+ * Remembers which order messages finished processing. A bounded in-memory set answers repeats seen
+ * by this instance; a marker collection with a TTL index survives restarts, which is exactly when
+ * the broker redelivers.
+ */
+@Slf4j
+@Component
+public class ProcessedMessageStore {
+
+    public static final String COLLECTION = "processed_messages";
+    public static final String PROCESSED_AT = "processedAt";
+
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, Boolean> recent;
+    private final Counter memoryHits;
+    private final Counter storeHits;
+    private final Counter misses;
+    private final long storeSizeRefreshNanos;
+
+    // last estimatedCount of the marker collection, refreshed at most once per refresh interval
+    private volatile long storeSize;
+    private volatile long storeSizeSampledAt;
+
+    public ProcessedMessageStore(MongoTemplate mongoTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${order.dedup.recent-size:100000}") long recentSize,
+                                 @Value("${order.dedup.ttl-ms:86400000}") long ttlMs,
+                                 @Value("${order.dedup.store-size-refresh-ms:60000}") long storeSizeRefreshMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.storeSizeRefreshNanos = Duration.ofMillis(storeSizeRefreshMs).toNanos();
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(recentSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+        this.memoryHits = lookups(meterRegistry, "memory");
+        this.storeHits = lookups(meterRegistry, "store");
+        this.misses = lookups(meterRegistry, "miss");
+        Gauge.builder("order.dedup.recent.size", recent, Cache::estimatedSize)
+                .description("Processed message keys held in memory")
+                .register(meterRegistry);
+        Gauge.builder("order.dedup.store.size", this, ProcessedMessageStore::storeSize)
+                .description("Processed message markers in the dedup collection")
+                .register(meterRegistry);
+    }
+
+    // the marker collection is only consulted when asked to, the in-memory set always is
+    public boolean isProcessed(String orderId, String messageId, int attempt, boolean consultStore) {
+        String key = key(orderId, messageId, attempt);
+        if (recent.getIfPresent(key) != null) {
+            memoryHits.increment();
+            return true;
+        }
+        if (consultStore && mongoTemplate.exists(Query.query(Criteria.where("_id").is(key)), COLLECTION)) {
+            recent.put(key, Boolean.TRUE);
+            storeHits.increment();
+            return true;
+        }
+        // without the store a first delivery is not looked up at all, so it is no miss either
+        if (consultStore) {
+            misses.increment();
+        }
+        return false;
+    }
+
+    // a lost marker only costs a redundant (and still guarded) saga run, so failures are not fatal
+    public void markProcessed(String orderId, String messageId, int attempt) {
+        String key = key(orderId, messageId, attempt);
+        recent.put(key, Boolean.TRUE);
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(key)),
+                    new Update().setOnInsert(PROCESSED_AT, Instant.now()), COLLECTION);
+        } catch (DataAccessException ex) {
+            log.warn(Defines.Order.DEDUP_MARK_ERROR, key, ex.getMessage());
+        }
+    }
+
+    private double storeSize() {
+        long now = System.nanoTime();
+        if (storeSizeSampledAt == 0 || now - storeSizeSampledAt >= storeSizeRefreshNanos) {
+            storeSize = mongoTemplate.estimatedCount(COLLECTION);
+            storeSizeSampledAt = now;
+        }
+        return storeSize;
+    }
+
+    // messages published before message ids were assigned are keyed on the order alone; a retry keeps its
+    // message id, so the attempt tells it apart from the delivery that scheduled it
+    private static String key(String orderId, String messageId, int attempt) {
+        String key = messageId == null ? orderId : orderId + ":" + messageId;
+        return attempt == 0 ? key : key + ":" + attempt;
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("order.dedup.lookups")
+                .description("Idempotency lookups by where the processed marker was found")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -7,6 +7,7 @@ import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Getter
@@ -14,8 +15,15 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Document(collection = "orders")
+@Document(collection = MongoOrder.COLLECTION)
 public class MongoOrder {
+    public static final String COLLECTION = "orders";
+    // COMPLETED and FAILED orders move here once they are old enough, see OrderArchiver
+    public static final String ARCHIVE_COLLECTION = "orders_archive";
+    public static final String STATUS_CHANGED_AT = "statusChangedAt";
+    // id of the last bulk status update that moved the order, see MongoOrderRepository.updateStatuses
+    public static final String CLAIM_ID = "claimId";
+
     @Id
     @Builder.Default
     private String orderId = UUID.randomUUID().toString();
@@ -24,6 +32,8 @@ public class MongoOrder {
     private Long quantity;
     private OrderStatus status;
     private SagaStatus sagaStatus;
+    private Instant statusChangedAt;
+    private MongoOutboxEntry outbox;
 
     public static MongoOrder fromDomain(Order order) {
         if (order == null) {
@@ -1,36 +1,245 @@
 package com.bwagih.orderservice.infrastructure.order.mongo;
 
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import com.bwagih.orderservice.domain.order.BulkSaveResult;
 import com.bwagih.orderservice.domain.order.Order;
 import com.bwagih.orderservice.domain.order.OrderRepository;
-import lombok.RequiredArgsConstructor;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.domain.order.StatusChange;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCursor;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-import java.util.Optional;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Repository
-@RequiredArgsConstructor
 public class MongoOrderRepository implements OrderRepository<String> {
+    static final Collection<OrderStatus> TERMINAL = EnumSet.of(OrderStatus.COMPLETED, OrderStatus.FAILED);
+
     private final SpringDataMongoOrderRepository repository;
+    private final MongoTemplate mongoTemplate;
+    private final OrderStatusViewQuery viewQuery;
+
+    public MongoOrderRepository(SpringDataMongoOrderRepository repository, MongoTemplate mongoTemplate) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.viewQuery = new OrderStatusViewQuery(mongoTemplate.getConverter());
+    }
 
     @Override
     public Order save(Order entity) {
         return MongoOrder.toDomain(repository.save(MongoOrder.fromDomain(entity)));
     }
 
+    @Override
+    public Order saveWithOutbox(Order entity) {
+        MongoOrder document = MongoOrder.fromDomain(entity);
+        document.setStatusChangedAt(Instant.now());
+        document.setOutbox(MongoOutboxEntry.pending());
+        return MongoOrder.toDomain(repository.save(document));
+    }
+
+    @Override
+    public BulkSaveResult saveAllWithOutbox(List<Order> entities) {
+        List<MongoOrder> documents = new ArrayList<>(entities.size());
+        Instant now = Instant.now();
+        for (Order entity : entities) {
+            MongoOrder document = MongoOrder.fromDomain(entity);
+            if (document.getOrderId() == null) {
+                // same id type Spring Data generates on save, so keyset order over _id stays uniform
+                document.setOrderId(new ObjectId().toHexString());
+            }
+            document.setStatusChangedAt(now);
+            document.setOutbox(MongoOutboxEntry.pending());
+            documents.add(document);
+        }
+
+        Map<Integer, String> failures = new HashMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MongoOrder.class)
+                    .insert(documents)
+                    .execute();
+        } catch (BulkOperationException ex) {
+            for (BulkWriteError error : ex.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+        }
+
+        List<Order> saved = new ArrayList<>(documents.size() - failures.size());
+        for (int i = 0; i < documents.size(); i++) {
+            if (!failures.containsKey(i)) {
+                saved.add(MongoOrder.toDomain(documents.get(i)));
+            }
+        }
+        return new BulkSaveResult(saved, failures);
+    }
+
+    // lookups by id fall back to the archive, which only ever holds orders missing from the hot collection
     @Override
     public Optional<Order> findById(String orderId) {
-        return repository.findById(orderId).map(MongoOrder::toDomain);
+        return repository.findById(orderId)
+                .or(() -> Optional.ofNullable(mongoTemplate.findById(orderId, MongoOrder.class, MongoOrder.ARCHIVE_COLLECTION)))
+                .map(MongoOrder::toDomain);
     }
 
     @Override
-    public List<OrderProjection> findOrdersByStatus(String status) {
-        return repository.findOrdersByStatus(status);
+    public List<Order> findAllById(Collection<String> orderIds) {
+        List<Order> orders = new ArrayList<>(orderIds.size());
+        Set<String> missing = new HashSet<>(orderIds);
+        repository.findAllById(orderIds).forEach(document -> {
+            orders.add(MongoOrder.toDomain(document));
+            missing.remove(document.getOrderId());
+        });
+        if (!missing.isEmpty()) {
+            mongoTemplate.find(new Query(Criteria.where("_id").in(missing)), MongoOrder.class, MongoOrder.ARCHIVE_COLLECTION)
+                    .forEach(document -> orders.add(MongoOrder.toDomain(document)));
+        }
+        return orders;
     }
 
     @Override
-    public Optional<OrderProjection> findOrderStatusByOrderId(String orderId) {
-        return repository.findOrderStatusByOrderId(orderId);
+    public Optional<Order> transition(String orderId, Collection<OrderStatus> from, OrderStatus to, SagaStatus sagaStatus) {
+        // filtering on the expected status turns duplicate or racing transitions into no-ops
+        MongoOrder previous = mongoTemplate.findAndModify(transitionQuery(orderId, from), statusUpdate(to, sagaStatus),
+                FindAndModifyOptions.options().returnNew(false), MongoOrder.class);
+        return Optional.ofNullable(previous).map(MongoOrder::toDomain);
+    }
+
+    @Override
+    public Set<String> updateStatuses(List<StatusChange<String>> changes) {
+        // every update in the call stamps the same claim id, so a single read tells which orders it moved
+        String claimId = new ObjectId().toHexString();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MongoOrder.class);
+        Set<String> orderIds = new HashSet<>();
+        for (StatusChange<String> change : changes) {
+            if (change.getOrderIds().isEmpty()) {
+                continue;
+            }
+            bulk.updateMulti(new Query(Criteria.where("_id").in(change.getOrderIds()).and("status").in(change.getExpectedStatuses())),
+                    statusUpdate(change.getStatus(), change.getSagaStatus()).set(MongoOrder.CLAIM_ID, claimId));
+            orderIds.addAll(change.getOrderIds());
+        }
+        if (orderIds.isEmpty()) {
+            return Set.of();
+        }
+
+        int matched = bulk.execute().getMatchedCount();
+        if (matched == 0) {
+            return Set.of();
+        }
+        if (matched == orderIds.size()) {
+            return orderIds;
+        }
+        Query claimed = new Query(Criteria.where("_id").in(orderIds).and(MongoOrder.CLAIM_ID).is(claimId));
+        claimed.fields().include("_id");
+        Set<String> moved = new HashSet<>(matched);
+        mongoTemplate.find(claimed, MongoOrder.class).forEach(document -> moved.add(document.getOrderId()));
+        return moved;
+    }
+
+    static Query transitionQuery(String orderId, Collection<OrderStatus> from) {
+        return new Query(Criteria.where("_id").is(orderId).and("status").in(from));
+    }
+
+    private static Update statusUpdate(OrderStatus status, SagaStatus sagaStatus) {
+        return new Update().set("status", status).set("sagaStatus", sagaStatus).set(MongoOrder.STATUS_CHANGED_AT, Instant.now());
+    }
+
+    // terminal orders whose status has not changed since the cutoff; orders written before
+    // statusChangedAt existed count as old
+    public static Query archivableQuery(Instant cutoff, int limit) {
+        return new Query(Criteria.where("status").in(TERMINAL).orOperator(
+                Criteria.where(MongoOrder.STATUS_CHANGED_AT).lt(cutoff),
+                Criteria.where(MongoOrder.STATUS_CHANGED_AT).is(null)))
+                .limit(limit);
+    }
+
+    static Query statusLookupQuery(String orderId) {
+        return statusLookupQuery(Criteria.where("_id").is(orderId));
+    }
+
+    static Query statusLookupQuery(Collection<String> orderIds) {
+        return statusLookupQuery(Criteria.where("_id").in(orderIds));
+    }
+
+    private static Query statusLookupQuery(Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields().include("_id", "customerName", "productName", "status");
+        return query;
+    }
+
+    // the read endpoints decode straight into OrderStatusView, skipping the entity converter and projection proxies
+    @Override
+    public List<OrderStatusView> findOrdersByStatus(OrderStatus status, String afterOrderId, int limit) {
+        Query query = statusQuery(status, afterOrderId).limit(limit);
+        return mongoTemplate.execute(MongoOrder.COLLECTION,
+                collection -> viewQuery.find(collection, query).into(new ArrayList<>(limit)));
+    }
+
+    @Override
+    public Stream<OrderStatusView> streamOrdersByStatus(OrderStatus status) {
+        MongoCursor<OrderStatusView> cursor = mongoTemplate.execute(MongoOrder.COLLECTION,
+                collection -> viewQuery.find(collection, statusQuery(status, null)).cursor());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+                .onClose(cursor::close);
     }
-}
 
+    static Query statusQuery(OrderStatus status, String afterOrderId) {
+        Criteria criteria = Criteria.where("status").is(status);
+        if (afterOrderId != null) {
+            // ids are ObjectIds unless a client supplied one; strings sort before ObjectIds, so a
+            // string cursor has to let the whole ObjectId range through as well
+            criteria = ObjectId.isValid(afterOrderId)
+                    ? criteria.and("_id").gt(afterOrderId)
+                    : criteria.orOperator(Criteria.where("_id").gt(afterOrderId),
+                                          Criteria.where("_id").type(JsonSchemaObject.Type.OBJECT_ID));
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id"));
+        query.fields().include("_id", "customerName", "status");
+        return query;
+    }
+
+    @Override
+    public Optional<OrderStatusView> findOrderStatusByOrderId(String orderId) {
+        return findOrderStatus(MongoOrder.COLLECTION, orderId)
+                .or(() -> findOrderStatus(MongoOrder.ARCHIVE_COLLECTION, orderId));
+    }
+
+    // one $in over the hot collection, then one over the archive for whatever it did not hold
+    @Override
+    public List<OrderStatusView> findOrderStatusesByIds(Collection<String> orderIds) {
+        List<OrderStatusView> views = findOrderStatuses(MongoOrder.COLLECTION, orderIds);
+        if (views.size() < orderIds.size()) {
+            Set<String> missing = new HashSet<>(orderIds);
+            views.forEach(view -> missing.remove(view.orderId()));
+            if (!missing.isEmpty()) {
+                views.addAll(findOrderStatuses(MongoOrder.ARCHIVE_COLLECTION, missing));
+            }
+        }
+        return views;
+    }
+
+    private List<OrderStatusView> findOrderStatuses(String collectionName, Collection<String> orderIds) {
+        Query query = statusLookupQuery(orderIds);
+        return mongoTemplate.execute(collectionName,
+                collection -> viewQuery.find(collection, query).into(new ArrayList<>(orderIds.size())));
+    }
+
+    private Optional<OrderStatusView> findOrderStatus(String collectionName, String orderId) {
+        return Optional.ofNullable(mongoTemplate.execute(collectionName,
+                collection -> viewQuery.find(collection, statusLookupQuery(orderId)).first()));
+    }
+}
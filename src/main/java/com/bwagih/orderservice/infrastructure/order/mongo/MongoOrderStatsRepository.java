@@ -0,0 +1,145 @@
+package com.bwagih.orderservice.infrastructure.order.mongo;
+
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// per-status order counts kept in a single summary document, keyed by field path (e.g. status.PENDING);
+// the version only moves when the counts are rebuilt from the orders, so deltas never land on a newer rebuild
+@Repository
+@RequiredArgsConstructor
+public class MongoOrderStatsRepository {
+
+    public static final String COLLECTION = "order_stats";
+
+    private static final String SUMMARY_ID = "orders";
+    private static final String STATUS = "status";
+    private static final String SAGA_STATUS = "sagaStatus";
+    private static final String UPDATED_AT = "updatedAt";
+    private static final String VERSION = "version";
+    private static final String LEASE_UNTIL = "reconcileLeaseUntil";
+
+    private final MongoTemplate mongoTemplate;
+
+    public static String statusKey(OrderStatus status) {
+        return STATUS + "." + status.name();
+    }
+
+    public static String sagaStatusKey(SagaStatus sagaStatus) {
+        return SAGA_STATUS + "." + sagaStatus.name();
+    }
+
+    // adds the deltas and returns the counts as stored afterwards, other instances' deltas included;
+    // empty when the summary was rebuilt since the given version was read
+    public Optional<StoredCounts> increment(long version, Map<String, Long> deltas) {
+        Update update = new Update().set(UPDATED_AT, Instant.now());
+        deltas.forEach(update::inc);
+        try {
+            Document summary = mongoTemplate.findAndModify(versionQuery(version), update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+            return Optional.of(toStoredCounts(summary));
+        } catch (DuplicateKeyException ex) {
+            // the upsert only inserts when the summary exists under another version
+            return Optional.empty();
+        }
+    }
+
+    public StoredCounts load() {
+        return toStoredCounts(mongoTemplate.findOne(summaryQuery(), Document.class, COLLECTION));
+    }
+
+    // at most one instance per lease rebuilds the counts, the lease is left to expire rather than released
+    public boolean acquireReconcileLease(Duration lease) {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("_id").is(SUMMARY_ID)
+                .orOperator(Criteria.where(LEASE_UNTIL).exists(false), Criteria.where(LEASE_UNTIL).lt(now)));
+        try {
+            mongoTemplate.upsert(query, new Update().set(LEASE_UNTIL, now.plus(lease)), COLLECTION);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    // overwrites the counts and moves to the next version, unless someone else rebuilt them since the given version
+    public boolean replace(long version, Map<String, Long> counts) {
+        Document statusCounts = new Document();
+        Document sagaStatusCounts = new Document();
+        counts.forEach((key, count) -> {
+            String[] path = key.split("\\.", 2);
+            (STATUS.equals(path[0]) ? statusCounts : sagaStatusCounts).append(path[1], count);
+        });
+        Update update = new Update()
+                .set(STATUS, statusCounts)
+                .set(SAGA_STATUS, sagaStatusCounts)
+                .set(UPDATED_AT, Instant.now())
+                .set(VERSION, version + 1);
+        return mongoTemplate.updateFirst(versionQuery(version), update, COLLECTION).getModifiedCount() > 0;
+    }
+
+    // full pass over the orders and their archive, only meant for reconciliation
+    public Map<String, Long> countOrders() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                UnionWithOperation.unionWith(MongoOrder.ARCHIVE_COLLECTION),
+                Aggregation.facet(Aggregation.group(STATUS).count().as("count")).as(STATUS)
+                        .and(Aggregation.group(SAGA_STATUS).count().as("count")).as(SAGA_STATUS));
+        Document result = mongoTemplate.aggregate(aggregation, MongoOrder.class, Document.class).getUniqueMappedResult();
+        Map<String, Long> counts = new HashMap<>();
+        if (result != null) {
+            for (String field : List.of(STATUS, SAGA_STATUS)) {
+                for (Document group : result.getList(field, Document.class)) {
+                    if (group.get("_id") != null) {
+                        counts.put(field + "." + group.get("_id"), ((Number) group.get("count")).longValue());
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static Query summaryQuery() {
+        return new Query(Criteria.where("_id").is(SUMMARY_ID));
+    }
+
+    // summaries written before versioning carry no version field and count as version 0
+    private static Query versionQuery(long version) {
+        Criteria criteria = Criteria.where("_id").is(SUMMARY_ID);
+        return new Query(version == 0 ? criteria.and(VERSION).in(0L, null) : criteria.and(VERSION).is(version));
+    }
+
+    private static StoredCounts toStoredCounts(Document summary) {
+        Map<String, Long> counts = new HashMap<>();
+        long version = 0;
+        if (summary != null) {
+            for (String field : List.of(STATUS, SAGA_STATUS)) {
+                Document nested = summary.get(field, Document.class);
+                if (nested != null) {
+                    nested.forEach((name, count) -> counts.put(field + "." + name, ((Number) count).longValue()));
+                }
+            }
+            Number stored = summary.get(VERSION, Number.class);
+            version = stored == null ? 0 : stored.longValue();
+        }
+        return new StoredCounts(version, counts);
+    }
+
+    public record StoredCounts(long version, Map<String, Long> counts) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.bwagih.orderservice.infrastructure.order.mongo;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MongoOutboxEntry {
+    private OutboxStatus status;
+    private Instant createdAt;
+    private Instant sentAt;
+    // fixed when the entry is written, so every relay of it carries the same message id
+    private String messageId;
+
+    public static MongoOutboxEntry pending() {
+        return MongoOutboxEntry.builder()
+                .status(OutboxStatus.PENDING)
+                .messageId(UUID.randomUUID().toString())
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    public enum OutboxStatus {
+        PENDING,
+        SENT
+    }
+}
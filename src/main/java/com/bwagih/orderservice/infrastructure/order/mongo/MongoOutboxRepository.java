@@ -0,0 +1,46 @@
+package com.bwagih.orderservice.infrastructure.order.mongo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class MongoOutboxRepository {
+    private static final String OUTBOX_STATUS = "outbox.status";
+    private static final String OUTBOX_CREATED_AT = "outbox.createdAt";
+    private static final String OUTBOX_SENT_AT = "outbox.sentAt";
+    private static final String OUTBOX_MESSAGE_ID = "outbox.messageId";
+
+    private final MongoTemplate mongoTemplate;
+
+    public List<MongoOrder> findPending(int limit) {
+        return mongoTemplate.find(pendingQuery(limit), MongoOrder.class);
+    }
+
+    static Query pendingQuery(int limit) {
+        Query query = new Query(Criteria.where(OUTBOX_STATUS).is(MongoOutboxEntry.OutboxStatus.PENDING))
+                .with(Sort.by(Sort.Direction.ASC, OUTBOX_CREATED_AT))
+                .limit(limit);
+        // the relay needs the partition key candidates to pick a partitioned routing key
+        query.fields().include("_id", "customerName", "productName", OUTBOX_CREATED_AT, OUTBOX_MESSAGE_ID);
+        return query;
+    }
+
+    public long markSent(Collection<String> orderIds) {
+        Query query = new Query(Criteria.where("_id").in(orderIds)
+                .and(OUTBOX_STATUS).is(MongoOutboxEntry.OutboxStatus.PENDING));
+        Update update = new Update()
+                .set(OUTBOX_STATUS, MongoOutboxEntry.OutboxStatus.SENT)
+                .set(OUTBOX_SENT_AT, Instant.now());
+        return mongoTemplate.updateMulti(query, update, MongoOrder.class).getModifiedCount();
+    }
+}
@@ -0,0 +1,7 @@
+package com.bwagih.orderservice.infrastructure.order.mongo;
+
+import com.bwagih.orderservice.domain.order.OrderStatus;
+
+// read model of the status endpoints, decoded straight from BSON by OrderStatusViewCodec
+public record OrderStatusView(String orderId, String customerName, String productName, OrderStatus status) {
+}
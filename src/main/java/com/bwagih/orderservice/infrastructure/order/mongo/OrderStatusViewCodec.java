@@ -0,0 +1,102 @@
+package com.bwagih.orderservice.infrastructure.order.mongo;
+
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+
+/*
+ * Streams the projected fields of an order document into an OrderStatusView without building an
+ * intermediate Document or going through the entity converter. Ids are written the way Spring Data
+ * stores a String @Id: as an ObjectId when the value is one, as a string otherwise.
+ */
+public final class OrderStatusViewCodec implements Codec<OrderStatusView> {
+
+    public static final OrderStatusViewCodec INSTANCE = new OrderStatusViewCodec();
+
+    private static final CodecRegistry VIEW_CODECS = CodecRegistries.fromCodecs(INSTANCE);
+
+    private OrderStatusViewCodec() {
+    }
+
+    // the views codec first, the collection's own registry for filters and everything else
+    public static CodecRegistry registry(CodecRegistry fallback) {
+        return CodecRegistries.fromRegistries(VIEW_CODECS, fallback);
+    }
+
+    @Override
+    public OrderStatusView decode(BsonReader reader, DecoderContext decoderContext) {
+        String orderId = null;
+        String customerName = null;
+        String productName = null;
+        OrderStatus status = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> orderId = readId(reader);
+                case "customerName" -> customerName = readString(reader);
+                case "productName" -> productName = readString(reader);
+                case "status" -> {
+                    String name = readString(reader);
+                    status = name == null ? null : OrderStatus.valueOf(name);
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new OrderStatusView(orderId, customerName, productName, status);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, OrderStatusView view, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (view.orderId() != null) {
+            if (ObjectId.isValid(view.orderId())) {
+                writer.writeObjectId("_id", new ObjectId(view.orderId()));
+            } else {
+                writer.writeString("_id", view.orderId());
+            }
+        }
+        writeString(writer, "customerName", view.customerName());
+        writeString(writer, "productName", view.productName());
+        writeString(writer, "status", view.status() == null ? null : view.status().name());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<OrderStatusView> getEncoderClass() {
+        return OrderStatusView.class;
+    }
+
+    private static String readId(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case OBJECT_ID -> reader.readObjectId().toHexString();
+            case STRING -> reader.readString();
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    private static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return reader.readString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    private static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.bwagih.orderservice.infrastructure.order.mongo;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.reactivestreams.client.FindPublisher;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+// maps a Query against MongoOrder to the raw filter, projection and sort the driver takes, so the
+// results can be decoded by OrderStatusViewCodec instead of the entity converter
+final class OrderStatusViewQuery {
+
+    private final QueryMapper queryMapper;
+    private final MongoPersistentEntity<?> entity;
+
+    OrderStatusViewQuery(MongoConverter converter) {
+        this.queryMapper = new QueryMapper(converter);
+        this.entity = converter.getMappingContext().getRequiredPersistentEntity(MongoOrder.class);
+    }
+
+    FindIterable<OrderStatusView> find(com.mongodb.client.MongoCollection<Document> collection, Query query) {
+        FindIterable<OrderStatusView> views = collection
+                .withCodecRegistry(OrderStatusViewCodec.registry(collection.getCodecRegistry()))
+                .find(filter(query), OrderStatusView.class)
+                .projection(queryMapper.getMappedFields(query.getFieldsObject(), entity))
+                .sort(queryMapper.getMappedSort(query.getSortObject(), entity));
+        return query.getLimit() > 0 ? views.limit(query.getLimit()) : views;
+    }
+
+    FindPublisher<OrderStatusView> find(com.mongodb.reactivestreams.client.MongoCollection<Document> collection, Query query) {
+        FindPublisher<OrderStatusView> views = collection
+                .withCodecRegistry(OrderStatusViewCodec.registry(collection.getCodecRegistry()))
+                .find(filter(query), OrderStatusView.class)
+                .projection(queryMapper.getMappedFields(query.getFieldsObject(), entity))
+                .sort(queryMapper.getMappedSort(query.getSortObject(), entity));
+        return query.getLimit() > 0 ? views.limit(query.getLimit()) : views;
+    }
+
+    private Document filter(Query query) {
+        return queryMapper.getMappedObject(query.getQueryObject(), entity);
+    }
+}
@@ -0,0 +1,99 @@
+package com.bwagih.orderservice.infrastructure.order.mongo;
+
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.infrastructure.config.MongoIndexBootstrapper;
+import com.bwagih.orderservice.shared.Defines;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "mongodb.query-plan.verify", havingValue = "true")
+public class QueryPlanVerifier {
+
+    private static final String COLLSCAN = "COLLSCAN";
+
+    private final MongoTemplate mongoTemplate;
+    private final QueryMapper queryMapper;
+
+    // off by default: a planner change should not keep the service from booting, the build catches scans instead
+    @Value("${mongodb.query-plan.fail-on-collscan:false}")
+    private boolean failOnCollscan;
+
+    // taking the bootstrapper guarantees the indexes exist before any plan is inspected
+    public QueryPlanVerifier(MongoTemplate mongoTemplate, MongoIndexBootstrapper indexBootstrapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+    }
+
+    static Map<String, Query> repositoryQueries() {
+        String sampleId = new ObjectId().toHexString();
+        Map<String, Query> queries = new LinkedHashMap<>();
+        queries.put("findOrdersByStatus", MongoOrderRepository.statusQuery(OrderStatus.PENDING, null));
+        queries.put("findOrdersByStatus(cursor)", MongoOrderRepository.statusQuery(OrderStatus.PENDING, sampleId));
+        queries.put("findOrderStatusByOrderId", new Query(Criteria.where("_id").is(sampleId)));
+        queries.put("findOrderStatusesByIds", MongoOrderRepository.statusLookupQuery(List.of(sampleId)));
+        queries.put("findAllById", new Query(Criteria.where("_id").in(List.of(sampleId))));
+        queries.put("transition", MongoOrderRepository.transitionQuery(sampleId, EnumSet.of(OrderStatus.PENDING, OrderStatus.PROCESSING)));
+        queries.put("findPendingOutbox", MongoOutboxRepository.pendingQuery(1));
+        queries.put("archivableOrders", MongoOrderRepository.archivableQuery(Instant.now(), 1));
+        return queries;
+    }
+
+    @PostConstruct
+    public void verify() {
+        List<String> collectionScans = collectionScans();
+        if (!collectionScans.isEmpty() && failOnCollscan) {
+            throw new IllegalStateException(Defines.Mongo.COLLSCAN_FAILURE + collectionScans);
+        }
+    }
+
+    // names of the repository queries whose winning plan scans the whole collection
+    List<String> collectionScans() {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(MongoOrder.class);
+        String collection = entity.getCollection();
+
+        List<String> collectionScans = new ArrayList<>();
+        repositoryQueries().forEach((name, query) -> {
+            Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+            Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+            Document explain = mongoTemplate.getCollection(collection).find(filter).sort(sort).explain();
+            Document queryPlanner = explain.get("queryPlanner", Document.class);
+            if (containsStage(queryPlanner.get("winningPlan"), COLLSCAN)) {
+                log.warn(Defines.Mongo.COLLSCAN_DETECTED, name, collection);
+                collectionScans.add(name);
+            }
+        });
+        return collectionScans;
+    }
+
+    private static boolean containsStage(Object plan, String stage) {
+        if (plan instanceof Document document) {
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (plan instanceof List<?> list) {
+            return list.stream().anyMatch(value -> containsStage(value, stage));
+        }
+        return false;
+    }
+}
@@ -0,0 +1,80 @@
+package com.bwagih.orderservice.infrastructure.order.mongo;
+
+import com.bwagih.orderservice.domain.order.Order;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.domain.order.ReactiveOrderRepository;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+@Repository
+public class ReactiveMongoOrderRepository implements ReactiveOrderRepository<String> {
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final OrderStatusViewQuery viewQuery;
+
+    public ReactiveMongoOrderRepository(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.viewQuery = new OrderStatusViewQuery(reactiveMongoTemplate.getConverter());
+    }
+
+    @Override
+    public Mono<Order> saveWithOutbox(Order entity) {
+        MongoOrder document = MongoOrder.fromDomain(entity);
+        if (document.getOrderId() == null) {
+            document.setOrderId(new ObjectId().toHexString());
+        }
+        document.setStatusChangedAt(Instant.now());
+        document.setOutbox(MongoOutboxEntry.pending());
+        return reactiveMongoTemplate.insert(document).map(MongoOrder::toDomain);
+    }
+
+    @Override
+    public Flux<OrderStatusView> findOrdersByStatus(OrderStatus status, String afterOrderId, int limit) {
+        Query query = MongoOrderRepository.statusQuery(status, afterOrderId).limit(limit);
+        return reactiveMongoTemplate.execute(MongoOrder.COLLECTION, collection -> viewQuery.find(collection, query));
+    }
+
+    // demand-driven: the cursor only fetches the next batch once the subscriber asked for it
+    @Override
+    public Flux<OrderStatusView> streamOrdersByStatus(OrderStatus status) {
+        Query query = MongoOrderRepository.statusQuery(status, null);
+        return reactiveMongoTemplate.execute(MongoOrder.COLLECTION, collection -> viewQuery.find(collection, query));
+    }
+
+    @Override
+    public Mono<OrderStatusView> findOrderStatusByOrderId(String orderId) {
+        return findOrderStatus(MongoOrder.COLLECTION, orderId)
+                .switchIfEmpty(Mono.defer(() -> findOrderStatus(MongoOrder.ARCHIVE_COLLECTION, orderId)));
+    }
+
+    @Override
+    public Flux<OrderStatusView> findOrderStatusesByIds(Collection<String> orderIds) {
+        return findOrderStatuses(MongoOrder.COLLECTION, orderIds)
+                .collectList()
+                .flatMapMany(views -> {
+                    Set<String> missing = new HashSet<>(orderIds);
+                    views.forEach(view -> missing.remove(view.orderId()));
+                    return missing.isEmpty()
+                            ? Flux.fromIterable(views)
+                            : Flux.fromIterable(views).concatWith(findOrderStatuses(MongoOrder.ARCHIVE_COLLECTION, missing));
+                });
+    }
+
+    private Flux<OrderStatusView> findOrderStatuses(String collectionName, Collection<String> orderIds) {
+        Query query = MongoOrderRepository.statusLookupQuery(orderIds);
+        return reactiveMongoTemplate.execute(collectionName, collection -> viewQuery.find(collection, query));
+    }
+
+    private Mono<OrderStatusView> findOrderStatus(String collectionName, String orderId) {
+        Query query = MongoOrderRepository.statusLookupQuery(orderId);
+        return reactiveMongoTemplate.execute(collectionName, collection -> viewQuery.find(collection, query).first()).next();
+    }
+}
@@ -0,0 +1,112 @@
+package com.bwagih.orderservice.infrastructure.outbox;
+
+import com.bwagih.orderservice.domain.MessagePublisher;
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrder;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOutboxRepository;
+import com.bwagih.orderservice.infrastructure.partition.OrderPartitioner;
+import com.bwagih.orderservice.shared.Defines;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final MongoOutboxRepository outboxRepository;
+    private final MessagePublisher messagePublisher;
+    private final RabbitMqOrderConfig rabbitMqOrderConfig;
+    private final OrderPartitioner orderPartitioner;
+    private final DistributionSummary batchSize;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${outbox.relay.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    public OutboxRelay(MongoOutboxRepository outboxRepository,
+                       MessagePublisher messagePublisher,
+                       RabbitMqOrderConfig rabbitMqOrderConfig,
+                       OrderPartitioner orderPartitioner,
+                       MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.messagePublisher = messagePublisher;
+        this.rabbitMqOrderConfig = rabbitMqOrderConfig;
+        this.orderPartitioner = orderPartitioner;
+        this.batchSize = DistributionSummary.builder("order.outbox.batch.size")
+                .description("Number of outbox records published per relay batch")
+                .register(meterRegistry);
+        Gauge.builder("order.outbox.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest unpublished outbox record")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        for (int run = 0; run < maxBatchesPerRun; run++) {
+            List<MongoOrder> pending = outboxRepository.findPending(maxBatchSize);
+            if (pending.isEmpty()) {
+                lagMillis.set(0);
+                return;
+            }
+            lagMillis.set(Duration.between(pending.get(0).getOutbox().getCreatedAt(), Instant.now()).toMillis());
+
+            // pipeline the whole batch and only mark the messages the broker confirmed
+            Map<String, CompletableFuture<Void>> confirms = new LinkedHashMap<>();
+            for (MongoOrder order : pending) {
+                confirms.put(order.getOrderId(), messagePublisher.publishAsync(rabbitMqOrderConfig.getExchange(),
+                        orderPartitioner.routingKeyFor(order), order.getOrderId(), messageId(order), Map.of()));
+            }
+
+            List<String> confirmed = new ArrayList<>(confirms.size());
+            Throwable lastError = null;
+            for (Map.Entry<String, CompletableFuture<Void>> confirm : confirms.entrySet()) {
+                try {
+                    confirm.getValue().join();
+                    confirmed.add(confirm.getKey());
+                } catch (CompletionException ex) {
+                    lastError = ex.getCause();
+                }
+            }
+
+            if (!confirmed.isEmpty()) {
+                long marked = outboxRepository.markSent(confirmed);
+                batchSize.record(confirmed.size());
+                log.debug(Defines.Outbox.RELAY_PUBLISHED, confirmed.size(), marked);
+            }
+            if (lastError != null) {
+                log.error(Defines.Outbox.RELAY_ERROR, confirms.size() - confirmed.size(), confirms.size(), lastError.getMessage());
+                return;
+            }
+
+            if (pending.size() < maxBatchSize) {
+                return;
+            }
+        }
+    }
+
+    // an entry relayed again after a lost confirm or a failed markSent must reach consumers as a duplicate;
+    // entries written before message ids were stored fall back to the order id
+    private static String messageId(MongoOrder order) {
+        String messageId = order.getOutbox().getMessageId();
+        return messageId == null ? order.getOrderId() : messageId;
+    }
+}
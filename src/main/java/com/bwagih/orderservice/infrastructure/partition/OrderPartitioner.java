@@ -0,0 +1,87 @@
+package com.bwagih.orderservice.infrastructure.partition;
+
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrder;
+import com.bwagih.orderservice.shared.Defines;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/*
+ * Maps an order to one of N partition queues by hashing its partition key, so every order of a key
+ * lands on the same queue and is consumed in publish order. Changing the partition count remaps
+ * keys, so drain the partition queues before resizing.
+ */
+@Component
+public class OrderPartitioner {
+
+    public enum PartitionKey {
+        CUSTOMER_NAME(MongoOrder::getCustomerName),
+        PRODUCT_NAME(MongoOrder::getProductName),
+        ORDER_ID(MongoOrder::getOrderId);
+
+        private final Function<MongoOrder, String> extractor;
+
+        PartitionKey(Function<MongoOrder, String> extractor) {
+            this.extractor = extractor;
+        }
+    }
+
+    private final RabbitMqOrderConfig rabbitMqOrderConfig;
+    private final int partitionCount;
+    private final PartitionKey partitionKey;
+    private final int[] claimedPartitions;
+
+    public OrderPartitioner(RabbitMqOrderConfig rabbitMqOrderConfig,
+                            @Value("${rabbitmq.partitions.count:0}") int partitionCount,
+                            @Value("${rabbitmq.partitions.key:CUSTOMER_NAME}") PartitionKey partitionKey,
+                            @Value("${rabbitmq.partitions.claimed:}") int[] claimedPartitions) {
+        this.rabbitMqOrderConfig = rabbitMqOrderConfig;
+        this.partitionCount = Math.max(1, partitionCount);
+        this.partitionKey = partitionKey;
+        // no explicit claim: subscribe to every partition and let single-active-consumer pick the owner
+        this.claimedPartitions = claimedPartitions.length == 0
+                ? IntStream.range(0, this.partitionCount).toArray()
+                : claimedPartitions;
+        for (int partition : this.claimedPartitions) {
+            if (partition < 0 || partition >= this.partitionCount) {
+                throw new IllegalStateException(Defines.MQ.INVALID_PARTITION_CLAIM + partition);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return partitionCount > 1;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public int partitionOf(String key) {
+        int hash = key == null ? 0 : key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitionCount);
+    }
+
+    public String routingKeyFor(MongoOrder order) {
+        if (!isEnabled()) {
+            return rabbitMqOrderConfig.getRoutingKey();
+        }
+        return routingKey(partitionOf(partitionKey.extractor.apply(order)));
+    }
+
+    public String routingKey(int partition) {
+        return rabbitMqOrderConfig.getRoutingKey() + "." + partition;
+    }
+
+    public String queueName(int partition) {
+        return rabbitMqOrderConfig.getQueue() + "." + partition;
+    }
+
+    public String[] claimedQueues() {
+        return Arrays.stream(claimedPartitions).mapToObj(this::queueName).toArray(String[]::new);
+    }
+}
@@ -0,0 +1,32 @@
+package com.bwagih.orderservice.infrastructure.retry;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "dlqreplay")
+@RequiredArgsConstructor
+public class DlqReplayEndpoint {
+
+    private final DlqReplayer dlqReplayer;
+
+    @ReadOperation
+    public DlqReplayStatus status() {
+        return dlqReplayer.status();
+    }
+
+    @WriteOperation
+    public DlqReplayStatus start(@Nullable Long maxMessages, @Nullable Double ratePerSecond) {
+        return dlqReplayer.start(maxMessages, ratePerSecond);
+    }
+
+    @DeleteOperation
+    public DlqReplayStatus stop() {
+        return dlqReplayer.stop();
+    }
+}
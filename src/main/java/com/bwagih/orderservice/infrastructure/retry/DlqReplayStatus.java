@@ -0,0 +1,19 @@
+package com.bwagih.orderservice.infrastructure.retry;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+public class DlqReplayStatus {
+    private boolean running;
+    private long replayed;
+    private long failed;
+    private long maxMessages;
+    private double ratePerSecond;
+    private long remaining;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
@@ -0,0 +1,185 @@
+package com.bwagih.orderservice.infrastructure.retry;
+
+import com.bwagih.orderservice.domain.MessagePublisher;
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.shared.Defines;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Moves dead-lettered order ids back onto the order routing key in batches, paced to a target rate.
+ * A batch is fetched unacked and each message is only acked once its republish is confirmed, so a
+ * failure leaves it in the DLQ; the run stops on the first failure instead of spinning on it.
+ */
+@Slf4j
+@Component
+public class DlqReplayer {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final RabbitAdmin rabbitAdmin;
+    private final MessageConverter messageConverter;
+    private final MessagePublisher messagePublisher;
+    private final RabbitMqOrderConfig rabbitMqOrderConfig;
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Value("${rabbitmq.dlq-replay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${rabbitmq.dlq-replay.max-messages:10000}")
+    private long defaultMaxMessages;
+
+    @Value("${rabbitmq.dlq-replay.rate-per-second:50}")
+    private double defaultRate;
+
+    private volatile boolean running;
+    private volatile long maxMessages;
+    private volatile double rate;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    public DlqReplayer(RabbitTemplate rabbitTemplate,
+                       RabbitAdmin rabbitAdmin,
+                       MessageConverter messageConverter,
+                       MessagePublisher messagePublisher,
+                       RabbitMqOrderConfig rabbitMqOrderConfig) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.rabbitAdmin = rabbitAdmin;
+        this.messageConverter = messageConverter;
+        this.messagePublisher = messagePublisher;
+        this.rabbitMqOrderConfig = rabbitMqOrderConfig;
+    }
+
+    public synchronized DlqReplayStatus start(Long requestedMax, Double requestedRate) {
+        if (running) {
+            return status();
+        }
+        maxMessages = requestedMax == null ? defaultMaxMessages : requestedMax;
+        rate = requestedRate == null ? defaultRate : requestedRate;
+        if (maxMessages < 1 || rate <= 0) {
+            // actuator answers this one with a 400
+            throw new InvalidEndpointRequestException(Defines.MQ.INVALID_REPLAY_REQUEST, Defines.MQ.INVALID_REPLAY_REQUEST);
+        }
+        replayed.set(0);
+        failed.set(0);
+        startedAt = Instant.now();
+        finishedAt = null;
+        running = true;
+        executor.execute(this::replay);
+        return status();
+    }
+
+    public DlqReplayStatus stop() {
+        running = false;
+        return status();
+    }
+
+    public DlqReplayStatus status() {
+        QueueInformation dlq = rabbitAdmin.getQueueInfo(rabbitMqOrderConfig.getDlqQueue());
+        return new DlqReplayStatus(running, replayed.get(), failed.get(), maxMessages, rate,
+                dlq == null ? 0 : dlq.getMessageCount(), startedAt, finishedAt);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    private void replay() {
+        try {
+            while (running && replayed.get() < maxMessages) {
+                long batchStart = System.nanoTime();
+                int size = (int) Math.min(batchSize, maxMessages - replayed.get());
+                int moved = rabbitTemplate.execute(channel -> replayBatch(channel, size));
+                if (moved < size) {
+                    break;
+                }
+                // pace whole batches so the consumers see at most `rate` replayed orders per second
+                long budgetNanos = (long) (moved / rate * TimeUnit.SECONDS.toNanos(1));
+                long remainingNanos = budgetNanos - (System.nanoTime() - batchStart);
+                if (remainingNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(remainingNanos);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (AmqpException ex) {
+            log.error(Defines.MQ.REPLAY_ERROR, ex.getMessage());
+        } finally {
+            running = false;
+            finishedAt = Instant.now();
+            log.info(Defines.MQ.REPLAY_FINISHED, replayed.get(), failed.get());
+        }
+    }
+
+    // returns the number of messages replayed, which is below size once the DLQ is empty or a publish failed
+    private int replayBatch(Channel channel, int size) throws IOException {
+        Map<Long, CompletableFuture<Void>> confirms = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            GetResponse response = channel.basicGet(rabbitMqOrderConfig.getDlqQueue(), false);
+            if (response == null) {
+                break;
+            }
+            long deliveryTag = response.getEnvelope().getDeliveryTag();
+            Message message = new Message(response.getBody(), propertiesConverter.toMessageProperties(
+                    response.getProps(), response.getEnvelope(), StandardCharsets.UTF_8.name()));
+            Object orderId;
+            try {
+                orderId = messageConverter.fromMessage(message);
+            } catch (MessageConversionException ex) {
+                channel.basicNack(deliveryTag, false, true);
+                failed.incrementAndGet();
+                running = false;
+                log.error(Defines.MQ.REPLAY_ERROR, ex.getMessage());
+                break;
+            }
+            // a replayed order gets a fresh set of retry tiers and message id, and may resume a saga it had started
+            confirms.put(deliveryTag, messagePublisher.publishAsync(rabbitMqOrderConfig.getExchange(),
+                    rabbitMqOrderConfig.getRoutingKey(), orderId, Map.of(Defines.MQ.RETRY_ATTEMPT_HEADER, 0)));
+        }
+
+        int moved = 0;
+        for (Map.Entry<Long, CompletableFuture<Void>> confirm : confirms.entrySet()) {
+            try {
+                confirm.getValue().join();
+                channel.basicAck(confirm.getKey(), false);
+                replayed.incrementAndGet();
+                moved++;
+            } catch (CompletionException ex) {
+                channel.basicNack(confirm.getKey(), false, true);
+                failed.incrementAndGet();
+                running = false;
+            }
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,36 @@
+package com.bwagih.orderservice.infrastructure.retry;
+
+import com.bwagih.orderservice.domain.MessagePublisher;
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.shared.Defines;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+@RequiredArgsConstructor
+public class OrderRetryScheduler {
+
+    private final OrderRetryTiers orderRetryTiers;
+    private final MessagePublisher messagePublisher;
+    private final RabbitMqOrderConfig rabbitMqOrderConfig;
+    private final MeterRegistry meterRegistry;
+
+    public boolean canRetry(int attempt) {
+        return attempt < orderRetryTiers.size();
+    }
+
+    // attempt is the number of retries already made; the message comes back carrying attempt + 1 and its message id,
+    // onto the routing key it was received with (the order routing key when unknown)
+    public CompletableFuture<Void> schedule(String orderId, String messageId, int attempt, String receivedRoutingKey) {
+        meterRegistry.counter("order.retry.scheduled", "tier", String.valueOf(attempt)).increment();
+        String tierRoutingKey = receivedRoutingKey == null
+                ? orderRetryTiers.routingKey(attempt)
+                : orderRetryTiers.routingKey(receivedRoutingKey, attempt);
+        return messagePublisher.publishAsync(rabbitMqOrderConfig.getExchange(), tierRoutingKey,
+                orderId, messageId, Map.of(Defines.MQ.RETRY_ATTEMPT_HEADER, attempt + 1));
+    }
+}
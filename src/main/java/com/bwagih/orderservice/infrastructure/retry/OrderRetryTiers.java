@@ -0,0 +1,48 @@
+package com.bwagih.orderservice.infrastructure.retry;
+
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/*
+ * Delayed retry tiers: tier n is a consumer-less queue whose TTL equals the n-th configured delay and
+ * which dead-letters back onto the routing key the order arrived on. The order queue and every
+ * partition queue get their own tiers, so a retried order returns to the queue it was consumed from
+ * and stays behind that partition's single active consumer. A failed saga moves one tier up per attempt.
+ */
+@Component
+public class OrderRetryTiers {
+
+    private final RabbitMqOrderConfig rabbitMqOrderConfig;
+    private final long[] delaysMs;
+
+    public OrderRetryTiers(RabbitMqOrderConfig rabbitMqOrderConfig,
+                           @Value("${rabbitmq.retry.delays-ms:1000,5000,30000}") long[] delaysMs) {
+        this.rabbitMqOrderConfig = rabbitMqOrderConfig;
+        this.delaysMs = delaysMs;
+    }
+
+    public int size() {
+        return delaysMs.length;
+    }
+
+    public long delayMs(int tier) {
+        return delaysMs[tier];
+    }
+
+    public String queueName(int tier) {
+        return queueName(rabbitMqOrderConfig.getQueue(), tier);
+    }
+
+    public String queueName(String orderQueue, int tier) {
+        return orderQueue + ".retry." + tier;
+    }
+
+    public String routingKey(int tier) {
+        return routingKey(rabbitMqOrderConfig.getRoutingKey(), tier);
+    }
+
+    public String routingKey(String orderRoutingKey, int tier) {
+        return orderRoutingKey + ".retry." + tier;
+    }
+}
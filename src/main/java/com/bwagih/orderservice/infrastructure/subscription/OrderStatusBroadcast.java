@@ -0,0 +1,50 @@
+package com.bwagih.orderservice.infrastructure.subscription;
+
+import com.bwagih.orderservice.domain.MessagePublisher;
+import com.bwagih.orderservice.domain.order.OrderStatusChangedEvent;
+import com.bwagih.orderservice.infrastructure.cache.OrderStatusCache;
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.shared.Defines;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// order.status-cache.cross-node-invalidation is the earlier name of the switch and still honoured
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("${order.status-events.cross-node:${order.status-cache.cross-node-invalidation:false}}")
+public class OrderStatusBroadcast {
+
+    private final OrderStatusCache orderStatusCache;
+    private final OrderStatusSubscriptions orderStatusSubscriptions;
+    private final MessagePublisher messagePublisher;
+    private final RabbitMqOrderConfig rabbitMqOrderConfig;
+
+    @EventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        messagePublisher.publishAsync(rabbitMqOrderConfig.getExchange(), rabbitMqOrderConfig.getStatusEventRoutingKey(), event)
+                .exceptionally(ex -> {
+                    log.warn(Defines.Subscriptions.BROADCAST_ERROR, event.getOrderId(), ex.getMessage());
+                    return null;
+                });
+    }
+
+    // every node binds its own auto-delete queue to the order exchange, so each one sees every transition;
+    // the own node's copy is harmless, eviction is idempotent and subscribers drop statuses they already saw
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(exclusive = "true", autoDelete = "true"),
+            exchange = @Exchange(value = "#{rabbitMqOrderConfig.getExchange()}", declare = "false"),
+            key = "#{rabbitMqOrderConfig.getStatusEventRoutingKey()}"),
+            ackMode = "NONE")
+    public void onRemoteStatusChanged(OrderStatusChangedEvent event) {
+        orderStatusCache.evict(event.getOrderId());
+        orderStatusSubscriptions.publish(event);
+    }
+}
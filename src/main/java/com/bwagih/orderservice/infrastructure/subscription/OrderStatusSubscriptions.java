@@ -0,0 +1,100 @@
+package com.bwagih.orderservice.infrastructure.subscription;
+
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.domain.order.OrderStatusChangedEvent;
+import com.bwagih.orderservice.infrastructure.order.mongo.OrderStatusView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/*
+ * In-process fan-out of order status changes to subscribers of a single order. Listeners run on the
+ * publishing thread (a saga or broker consumer), so they must only hand the event off; conflation and
+ * the actual write belong to the transport. The subscriber count is capped so memory stays bounded.
+ */
+@Component
+public class OrderStatusSubscriptions {
+
+    public static final String SSE_EVENT = "status";
+
+    private final ConcurrentHashMap<String, Set<Consumer<OrderStatusChangedEvent>>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final int maxSubscribers;
+    private final Counter rejected;
+
+    public OrderStatusSubscriptions(MeterRegistry meterRegistry,
+                                    @Value("${order.subscriptions.max-subscribers:10000}") int maxSubscribers) {
+        this.maxSubscribers = maxSubscribers;
+        this.rejected = Counter.builder("order.subscriptions.rejected")
+                .description("Status subscriptions refused at the subscriber limit")
+                .register(meterRegistry);
+        Gauge.builder("order.subscriptions.active", active, AtomicInteger::get)
+                .description("Open order status subscriptions")
+                .register(meterRegistry);
+    }
+
+    public static boolean isTerminal(OrderStatus status) {
+        return status == OrderStatus.COMPLETED || status == OrderStatus.FAILED;
+    }
+
+    // statuses only move forward, so anything behind what a subscriber already saw is stale
+    public static boolean isNewer(OrderStatus last, OrderStatus status) {
+        return last == null || status.ordinal() > last.ordinal();
+    }
+
+    // the current state, sent first so a subscriber never waits for a transition that already happened
+    public static OrderStatusChangedEvent snapshot(OrderStatusView view) {
+        return new OrderStatusChangedEvent(view.orderId(), null, null, view.status(), null);
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    // empty when the subscriber limit is reached; otherwise the returned handle unsubscribes
+    public Optional<Runnable> subscribe(String orderId, Consumer<OrderStatusChangedEvent> listener) {
+        if (active.incrementAndGet() > maxSubscribers) {
+            active.decrementAndGet();
+            rejected.increment();
+            return Optional.empty();
+        }
+        // compute rather than computeIfAbsent + add, a concurrent unsubscribe may be dropping the set
+        subscribers.compute(orderId, (id, listeners) -> {
+            Set<Consumer<OrderStatusChangedEvent>> current = listeners == null ? ConcurrentHashMap.newKeySet() : listeners;
+            current.add(listener);
+            return current;
+        });
+        return Optional.of(() -> unsubscribe(orderId, listener));
+    }
+
+    @EventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        publish(event);
+    }
+
+    // also fed directly with transitions made by other instances, received over the order exchange
+    public void publish(OrderStatusChangedEvent event) {
+        Set<Consumer<OrderStatusChangedEvent>> listeners = subscribers.get(event.getOrderId());
+        if (listeners != null) {
+            listeners.forEach(listener -> listener.accept(event));
+        }
+    }
+
+    private void unsubscribe(String orderId, Consumer<OrderStatusChangedEvent> listener) {
+        subscribers.computeIfPresent(orderId, (id, listeners) -> {
+            if (listeners.remove(listener)) {
+                active.decrementAndGet();
+            }
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+}
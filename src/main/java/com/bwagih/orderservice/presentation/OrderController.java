@@ -1,20 +1,46 @@
 package com.bwagih.orderservice.presentation;
 
+import com.bwagih.orderservice.presentation.dots.BatchOrderResponseDTO;
 import com.bwagih.orderservice.presentation.dots.OrderDTO;
-import com.bwagih.orderservice.infrastructure.order.mongo.OrderProjection;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.infrastructure.order.mongo.OrderStatusView;
 import com.bwagih.orderservice.application.order.OrderService;
+import com.bwagih.orderservice.presentation.dots.OrderPageDTO;
+import com.bwagih.orderservice.presentation.dots.OrderStatsDTO;
+import com.bwagih.orderservice.presentation.dots.OrderStatusBatchDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/orders")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class OrderController {
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor subscriptionExecutor;
+
+    @Value("${order.subscriptions.timeout-ms:300000}")
+    private long subscriptionTimeoutMs;
 
     @PostMapping
     public ResponseEntity<OrderDTO> createOrder(@RequestBody OrderDTO orderDTO) {
@@ -22,14 +48,66 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchOrderResponseDTO> createOrders(@RequestBody List<OrderDTO> orderDTOs) {
+        BatchOrderResponseDTO response = orderService.createOrders(orderDTOs);
+        HttpStatus status = response.getRejected() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(response);
+    }
+
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<OrderProjection>> getOrdersByStatus(@PathVariable String status) {
-        List<OrderProjection> orders = orderService.getOrdersByStatus(status);
+    public ResponseEntity<OrderPageDTO> getOrdersByStatus(@PathVariable OrderStatus status,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "100") int limit) {
+        OrderPageDTO orders = orderService.getOrdersByStatus(status, cursor, limit);
         return ResponseEntity.ok(orders);
     }
+
+    @GetMapping("/status/{status}/stream")
+    public ResponseEntity<StreamingResponseBody> streamOrdersByStatus(@PathVariable OrderStatus status) {
+        ObjectWriter writer = objectMapper.writer();
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<OrderStatusView> orders = orderService.streamOrdersByStatus(status)) {
+                writeNdjson(writer, orders.iterator(), outputStream);
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<OrderStatsDTO> getOrderStats() {
+        return ResponseEntity.ok(orderService.getOrderStats());
+    }
+
+    // statuses for many orders in one round trip; unknown ids are listed under missing rather than failing the call
+    @PostMapping("/status:batch")
+    public ResponseEntity<OrderStatusBatchDTO> getOrderStatuses(@RequestBody List<String> orderIds) {
+        return ResponseEntity.ok(orderService.getOrderStatuses(orderIds));
+    }
+
     @GetMapping("/{orderId}/status")
-    public ResponseEntity<OrderProjection> getOrderStatus(@PathVariable String orderId) {
-        OrderProjection orderStatus = orderService.getOrderStatus(orderId);
+    public ResponseEntity<OrderStatusView> getOrderStatus(@PathVariable String orderId) {
+        OrderStatusView orderStatus = orderService.getOrderStatus(orderId);
         return ResponseEntity.ok(orderStatus);
     }
+
+    // pushes the current status, then each transition until COMPLETED or FAILED, instead of polling the status endpoint
+    @GetMapping(value = "/{orderId}/status/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeOrderStatus(@PathVariable String orderId) {
+        OrderStatusEmitter emitter = new OrderStatusEmitter(orderId, subscriptionTimeoutMs, subscriptionExecutor);
+        emitter.attach(orderService.subscribeOrderStatus(orderId, emitter::offer));
+        return emitter;
+    }
+
+    private static void writeNdjson(ObjectWriter writer, Iterator<?> items, OutputStream outputStream) throws IOException {
+        int written = 0;
+        while (items.hasNext()) {
+            outputStream.write(writer.writeValueAsBytes(items.next()));
+            outputStream.write('\n');
+            if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                outputStream.flush();
+            }
+        }
+        outputStream.flush();
+    }
 }
@@ -0,0 +1,96 @@
+package com.bwagih.orderservice.presentation;
+
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.domain.order.OrderStatusChangedEvent;
+import com.bwagih.orderservice.infrastructure.subscription.OrderStatusSubscriptions;
+import com.bwagih.orderservice.shared.Defines;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * SSE stream for one order. A subscriber holds at most one pending status: a newer one replaces it
+ * (conflation), so a slow client costs one slot rather than a growing buffer. Sends are serialized on
+ * the subscription executor, never on the saga or consumer thread that published the change; a send
+ * that fails drops the subscriber and a terminal status ends the stream.
+ */
+@Slf4j
+class OrderStatusEmitter extends SseEmitter {
+
+    private final String orderId;
+    private final Executor executor;
+    private final AtomicReference<OrderStatusChangedEvent> pending = new AtomicReference<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile Runnable unsubscribe = () -> { };
+    private volatile boolean closed;
+
+    // only touched inside drain(), which never runs concurrently with itself
+    private OrderStatus lastSent;
+
+    OrderStatusEmitter(String orderId, long timeoutMs, Executor executor) {
+        super(timeoutMs);
+        this.orderId = orderId;
+        this.executor = executor;
+        onCompletion(this::close);
+        onTimeout(this::close);
+        onError(ex -> close());
+    }
+
+    void attach(Runnable unsubscribe) {
+        this.unsubscribe = unsubscribe;
+        if (closed) {
+            unsubscribe.run();
+        }
+    }
+
+    void offer(OrderStatusChangedEvent event) {
+        pending.accumulateAndGet(event, (current, next) ->
+                current == null || next.getStatus().ordinal() >= current.getStatus().ordinal() ? next : current);
+        if (wip.getAndIncrement() == 0) {
+            try {
+                executor.execute(this::drain);
+            } catch (TaskRejectedException ex) {
+                log.warn(Defines.Subscriptions.SEND_FAILED, orderId, ex.getMessage());
+                close();
+                complete();
+            }
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            OrderStatusChangedEvent event = pending.getAndSet(null);
+            if (event != null && !closed && OrderStatusSubscriptions.isNewer(lastSent, event.getStatus())) {
+                send(event);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void send(OrderStatusChangedEvent event) {
+        try {
+            send(event().name(OrderStatusSubscriptions.SSE_EVENT).data(event, MediaType.APPLICATION_JSON));
+            lastSent = event.getStatus();
+            if (OrderStatusSubscriptions.isTerminal(event.getStatus())) {
+                close();
+                complete();
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // the container reports the broken connection through onError, only the subscription goes here
+            log.debug(Defines.Subscriptions.SEND_FAILED, orderId, ex.getMessage());
+            close();
+        }
+    }
+
+    private void close() {
+        closed = true;
+        unsubscribe.run();
+    }
+}
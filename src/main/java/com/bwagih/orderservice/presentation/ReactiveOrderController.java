@@ -0,0 +1,70 @@
+package com.bwagih.orderservice.presentation;
+
+import com.bwagih.orderservice.application.order.ReactiveOrderService;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.domain.order.OrderStatusChangedEvent;
+import com.bwagih.orderservice.infrastructure.order.mongo.OrderStatusView;
+import com.bwagih.orderservice.infrastructure.subscription.OrderStatusSubscriptions;
+import com.bwagih.orderservice.presentation.dots.OrderDTO;
+import com.bwagih.orderservice.presentation.dots.OrderPageDTO;
+import com.bwagih.orderservice.presentation.dots.OrderStatsDTO;
+import com.bwagih.orderservice.presentation.dots.OrderStatusBatchDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/orders")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveOrderController {
+
+    private final ReactiveOrderService orderService;
+
+    @PostMapping
+    public Mono<ResponseEntity<OrderDTO>> createOrder(@RequestBody OrderDTO orderDTO) {
+        return orderService.createOrder(orderDTO)
+                .map(createdOrder -> ResponseEntity.status(HttpStatus.CREATED).body(createdOrder));
+    }
+
+    @GetMapping("/status/{status}")
+    public Mono<OrderPageDTO> getOrdersByStatus(@PathVariable OrderStatus status,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "100") int limit) {
+        return orderService.getOrdersByStatus(status, cursor, limit);
+    }
+
+    @GetMapping(value = "/status/{status}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderStatusView> streamOrdersByStatus(@PathVariable OrderStatus status) {
+        return orderService.streamOrdersByStatus(status);
+    }
+
+    @GetMapping("/stats")
+    public Mono<OrderStatsDTO> getOrderStats() {
+        return orderService.getOrderStats();
+    }
+
+    @PostMapping("/status:batch")
+    public Mono<OrderStatusBatchDTO> getOrderStatuses(@RequestBody List<String> orderIds) {
+        return orderService.getOrderStatuses(orderIds);
+    }
+
+    @GetMapping("/{orderId}/status")
+    public Mono<OrderStatusView> getOrderStatus(@PathVariable String orderId) {
+        return orderService.getOrderStatus(orderId);
+    }
+
+    @GetMapping(value = "/{orderId}/status/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<OrderStatusChangedEvent>> subscribeOrderStatus(@PathVariable String orderId) {
+        return orderService.subscribeOrderStatus(orderId)
+                .map(event -> ServerSentEvent.builder(event).event(OrderStatusSubscriptions.SSE_EVENT).build());
+    }
+}
@@ -0,0 +1,17 @@
+package com.bwagih.orderservice.presentation.dots;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchOrderResultDTO {
+    private int index;
+    private String orderId;
+    private boolean success;
+    private String error;
+}
@@ -0,0 +1,18 @@
+package com.bwagih.orderservice.presentation.dots;
+
+import com.bwagih.orderservice.infrastructure.order.mongo.OrderStatusView;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderPageDTO {
+    private List<OrderStatusView> items;
+    private String nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.bwagih.orderservice.presentation.dots;
+
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatsDTO {
+    private long total;
+    private Map<OrderStatus, Long> status;
+    private Map<SagaStatus, Long> sagaStatus;
+    private Instant checkpointedAt;
+}
@@ -0,0 +1,19 @@
+package com.bwagih.orderservice.presentation.dots;
+
+import com.bwagih.orderservice.infrastructure.order.mongo.OrderStatusView;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatusBatchDTO {
+    private Map<String, OrderStatusView> statuses;
+    private List<String> missing;
+}
@@ -4,17 +4,106 @@ public final class Defines {
 
     public static final String UN_EXPECTED_ERROR = "An unexpected error occurred";
     public static final String ORDER_NOT_FOUND = "Order not found";
+    public static final String INVALID_REQUEST = "Invalid request";
+    public static final String INVALID_PARAMETER = "Invalid value for parameter: ";
+    public static final String SERVICE_SATURATED = "Service saturated, retry later";
 
     public static class MQ {
         public static final String INVALID_MESSAGE = "Message cannot be null";
         public static final String MESSAGE_PUBLISHED = "Message published to exchange: {}, routingKey: {} - {}";
         public static final String MESSAGE_PUBLISH_ERROR = "Error publishing message to exchange: {}, routingKey: {} - {}";
+        public static final String BATCH_PUBLISHED = "Batch of {} messages published to exchange: {}, routingKey: {}";
+        public static final String MESSAGE_NACKED = "Message nacked by broker on exchange: {}, routingKey: {} - {}, retry attempt {}";
+        public static final String MESSAGE_NACK_EXHAUSTED = "Message nacked by broker after all retries: ";
+        public static final String MESSAGE_RETURNED = "Message returned as unroutable: ";
+        public static final String CONFIRM_TIMEOUT = "Timed out waiting for publisher confirm: ";
+        public static final String IN_FLIGHT_LIMIT_REACHED = "Unconfirmed publish limit reached: ";
+        public static final String ORDER_LISTENER_ID = "orderProcessor";
+        public static final String ORDER_BATCH_LISTENER_ID = "orderBatchProcessor";
+        public static final String ORDER_PARTITION_LISTENER_ID = "orderPartitionProcessor";
+        public static final String RETRY_ATTEMPT_HEADER = "x-order-retry";
+        public static final String INVALID_REPLAY_REQUEST = "DLQ replay needs a positive message limit and rate";
+        public static final String REPLAY_ERROR = "DLQ replay stopped - {}";
+        public static final String REPLAY_FINISHED = "DLQ replay finished: {} replayed, {} failed";
+        public static final String INVALID_PARTITION_CLAIM = "Claimed partition is outside the configured partition count: ";
+        public static final String ORDER_LISTENER_CLASS = "OrderProcessor";
+        public static final String ORDER_LISTENER_METHOD = "processOrder";
+        public static final String ORDER_BATCH_LISTENER_CLASS = "OrderBatchProcessor";
+        public static final String ORDER_BATCH_LISTENER_METHOD = "processOrders";
+        public static final String AUTOSCALER_DECISION = "Consumer autoscaler {}: consumers={} - {}";
+        public static final String AUTOSCALER_BACKLOG = "backlog of %d messages at %.1f ms latency";
+        public static final String AUTOSCALER_OVERLOADED = "latency %.1f ms above target %.1f ms";
+        public static final String AUTOSCALER_IDLE = "queue depth %d at %.2f utilization";
+    }
+
+    public static class Outbox {
+        public static final String RELAY_PUBLISHED = "Outbox relay published {} orders, {} marked sent";
+        public static final String RELAY_ERROR = "Outbox relay failed to publish {} of {} orders - {}";
+    }
+
+    public static class Admission {
+        public static final String QUEUE_BACKLOG = "Order backlog too deep: ";
+        public static final String CONCURRENCY_LIMIT = "Concurrent order submissions limit reached: ";
+        public static final String RATE_LIMIT = "Order admission rate exceeded: ";
+        public static final String DEPTH_SAMPLE_ERROR = "Failed to sample order queue depth - {}";
+    }
+
+    public static class Archive {
+        public static final String ARCHIVED = "Archived {} terminal orders changed before {}";
+        public static final String ARCHIVE_ERROR = "Order archiver batch failed - {}";
+    }
+
+    public static class Stats {
+        public static final String CHECKPOINT_ERROR = "Failed to checkpoint order statistics - {}";
+        public static final String RECONCILE_ERROR = "Failed to reconcile order statistics - {}";
+        public static final String RECONCILED = "Order statistics drifted from the orders collection, stored: {}, actual: {}";
+        public static final String REBUILT_ELSEWHERE = "Order statistics were rebuilt by another instance, continuing from version {}";
+    }
+
+    public static class VirtualThreads {
+        public static final String UNSUPPORTED_RUNTIME = "Virtual threads need a Java 21 runtime, running on ";
+        public static final String PINNED = "Virtual thread pinned to its carrier for {} ms{}";
+    }
+
+    public static class Measurement {
+        public static final String SLOW_EXECUTION = "{}.{} executed in {} ms";
+        public static final String EXTRA_TAGS_NEED_NAME = "@MeasureExecutionTime with extraTags needs its own metric name: ";
+        public static final String TAG_KEYS_MISMATCH = "@MeasureExecutionTime timers named %s declare different extra tag keys: %s and %s";
+        // saga listeners wait out order.processing.delay-ms on every order, only time beyond it counts as slow
+        public static final String SAGA_SLOW_THRESHOLD_MS = "#{${order.processing.delay-ms:5000} + ${measurement.slow-threshold-ms:1000}}";
+    }
+
+    public static class Mongo {
+        public static final String INDEX_DROPPED = "Dropped undeclared index on collection: {} - {}";
+        public static final String INDEX_RECREATED = "Recreated index with changed definition on collection: {} - {}";
+        public static final String COLLSCAN_DETECTED = "Query falls back to a collection scan: {} on collection: {}";
+        public static final String COLLSCAN_FAILURE = "Repository queries without index support: ";
+    }
+
+    public static class Subscriptions {
+        public static final String BROADCAST_ERROR = "Failed to broadcast status change for order: {} - {}";
+        public static final String LIMIT_REACHED = "Order status subscriptions limit reached: ";
+        public static final String SEND_FAILED = "Dropping status subscriber for order: {} - {}";
     }
 
     public static class Order {
         public static final String ORDER_PROCESSING_ERROR = "Error processing order with id: {} - {}";
-        public static final String ORDER_PUBLISHER_INFO = "Order with id: {} published to RabbitMQ";
+        public static final String ORDER_QUEUED_INFO = "Order with id: {} written to the outbox";
         public static final String ORDER_NOT_FOUND = "Order not found with id: {} ";
+        public static final String ORDER_TRANSITION_SKIPPED = "Order with id: {} is missing or not eligible for {}, skipping";
+        public static final String INVALID_PAGE_LIMIT = "Page limit must be between 1 and ";
+        public static final String INVALID_CURSOR = "Malformed pagination cursor";
+        public static final String BATCH_ORDERS_MISSING = "{} of {} orders in the consumed batch were missing or not eligible for processing";
+        public static final String BATCH_ORDERS_CLAIMED_ELSEWHERE = "{} of {} orders in the consumed batch changed status before they could be claimed, skipping";
+        public static final String BATCH_EMPTY = "Order batch must contain at least one order";
+        public static final String BATCH_TOO_LARGE = "Order batch exceeds the maximum size of ";
+        public static final String BATCH_INVALID_ENTRY = "Order entry must not be null";
+        public static final String ORDER_RETRY_SCHEDULED = "Order with id: {} failed, retry {} scheduled - {}";
+        public static final String DUPLICATE_MESSAGE_SKIPPED = "Order with id: {} already processed for message: {}, acking duplicate";
+        public static final String DEDUP_MARK_ERROR = "Failed to persist processed marker: {} - {}";
+        public static final String BATCH_RECEIVED = "Order batch received: {} accepted, {} rejected";
+        public static final String STATUS_BATCH_EMPTY = "Status lookup must contain at least one order id";
+        public static final String STATUS_BATCH_TOO_LARGE = "Status lookup exceeds the maximum of order ids: ";
     }
 
 }
@@ -8,4 +8,13 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface MeasureExecutionTime {
+
+    // metric name, defaults to method.execution
+    String value() default "";
+
+    // additional tags as key=value pairs; needs its own value(), every timer sharing a name must carry the same tag keys
+    String[] extraTags() default {};
+
+    // slow-call log threshold in ms, placeholders and SpEL allowed; defaults to measurement.slow-threshold-ms
+    String slowThresholdMs() default "";
 }
@@ -0,0 +1,157 @@
+package com.bwagih.orderservice.application.order;
+
+import com.bwagih.orderservice.application.order.saga.OrderSaga;
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import com.bwagih.orderservice.domain.order.Order;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.domain.order.OrderStatusChangedEvent;
+import com.bwagih.orderservice.domain.order.StatusChange;
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.infrastructure.idempotency.ProcessedMessageStore;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrderRepository;
+import com.bwagih.orderservice.infrastructure.retry.OrderRetryScheduler;
+import com.bwagih.orderservice.shared.Defines;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderBatchProcessorTest {
+
+    @Mock
+    private MongoOrderRepository orderRepository;
+    @Mock
+    private RabbitMqOrderConfig rabbitMqOrderConfig;
+    @Mock
+    private OrderSaga orderSaga;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ProcessedMessageStore processedMessageStore;
+    @Mock
+    private OrderRetryScheduler orderRetryScheduler;
+
+    @InjectMocks
+    private OrderBatchProcessor orderBatchProcessor;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void runsSagasOnlyForOrdersThisBatchClaimed() {
+        Order pending = order("a", OrderStatus.PENDING, SagaStatus.INITIATED);
+        Order resumed = order("b", OrderStatus.PROCESSING, SagaStatus.IN_PROGRESS);
+        Order taken = order("c", OrderStatus.PENDING, SagaStatus.INITIATED);
+        when(orderRepository.findAllById(any())).thenReturn(List.of(pending, resumed, taken));
+        // another consumer moved "c" between the read and the claim
+        when(orderRepository.updateStatuses(anyList())).thenReturn(Set.of("a", "b"), Set.of("a", "b"));
+        when(orderSaga.run(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        orderBatchProcessor.processOrders(List.of(message("a", false), message("b", true), message("c", false)));
+
+        ArgumentCaptor<List<StatusChange<String>>> claims = ArgumentCaptor.forClass(List.class);
+        verify(orderRepository, times(2)).updateStatuses(claims.capture());
+        assertThat(claims.getAllValues().get(0)).allSatisfy(claim ->
+                assertThat(claim.getExpectedStatuses()).hasSize(1));
+
+        ArgumentCaptor<Order> sagas = ArgumentCaptor.forClass(Order.class);
+        verify(orderSaga, times(2)).run(sagas.capture());
+        assertThat(sagas.getAllValues()).extracting(Order::getOrderId).containsExactly("a", "b");
+
+        ArgumentCaptor<OrderStatusChangedEvent> events = ArgumentCaptor.forClass(OrderStatusChangedEvent.class);
+        verify(eventPublisher, atLeastOnce()).publishEvent(events.capture());
+        assertThat(events.getAllValues()).extracting(OrderStatusChangedEvent::getOrderId).doesNotContain("c");
+    }
+
+    @Test
+    void publishesCompletionOnlyForOrdersTheFinalUpdateMoved() {
+        when(orderRepository.findAllById(any())).thenReturn(List.of(
+                order("a", OrderStatus.PENDING, SagaStatus.INITIATED), order("b", OrderStatus.PENDING, SagaStatus.INITIATED)));
+        // "b" was rolled back by another consumer while its saga ran here
+        when(orderRepository.updateStatuses(anyList())).thenReturn(Set.of("a", "b"), Set.of("a"));
+        when(orderSaga.run(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        orderBatchProcessor.processOrders(List.of(message("a", false), message("b", false)));
+
+        ArgumentCaptor<OrderStatusChangedEvent> events = ArgumentCaptor.forClass(OrderStatusChangedEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        assertThat(events.getAllValues())
+                .filteredOn(event -> event.getStatus() == OrderStatus.COMPLETED)
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getOrderId()).isEqualTo("a");
+                    assertThat(event.getPreviousStatus()).isEqualTo(OrderStatus.PROCESSING);
+                });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedSagasGoThroughTheRetryTiersBeforeRollingBack() {
+        when(orderRepository.findAllById(any())).thenReturn(List.of(
+                order("a", OrderStatus.PENDING, SagaStatus.INITIATED), order("b", OrderStatus.PROCESSING, SagaStatus.IN_PROGRESS)));
+        when(orderRepository.updateStatuses(anyList())).thenReturn(Set.of("a", "b"), Set.of("b"));
+        when(orderSaga.run(any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("payment declined")));
+        // "b" already went through every tier
+        when(orderRetryScheduler.canRetry(0)).thenReturn(true);
+        when(orderRetryScheduler.canRetry(3)).thenReturn(false);
+        when(orderRetryScheduler.schedule("a", "message-a", 0, "orderRoutingKey")).thenReturn(CompletableFuture.completedFuture(null));
+
+        orderBatchProcessor.processOrders(List.of(message("a", false), retry("b", 3)));
+
+        ArgumentCaptor<List<StatusChange<String>>> updates = ArgumentCaptor.forClass(List.class);
+        verify(orderRepository, times(2)).updateStatuses(updates.capture());
+        assertThat(updates.getAllValues().get(1))
+                .filteredOn(change -> change.getStatus() == OrderStatus.FAILED)
+                .singleElement()
+                .satisfies(change -> assertThat(change.getOrderIds()).containsExactly("b"));
+        assertThat(updates.getAllValues().get(1))
+                .flatExtracting(StatusChange::getOrderIds)
+                .doesNotContain("a");
+        verify(processedMessageStore).markProcessed("a", "message-a", 0);
+        verify(processedMessageStore).markProcessed("b", "message-b", 3);
+    }
+
+    @Test
+    void processedMessagesAreSkipped() {
+        when(processedMessageStore.isProcessed(eq("a"), eq("message-a"), anyInt(), anyBoolean())).thenReturn(true);
+
+        orderBatchProcessor.processOrders(List.of(message("a", true)));
+
+        verify(processedMessageStore).isProcessed("a", "message-a", 0, true);
+        verifyNoInteractions(orderRepository, orderSaga);
+        verify(processedMessageStore, never()).markProcessed(any(), any(), anyInt());
+    }
+
+    private static Order order(String orderId, OrderStatus status, SagaStatus sagaStatus) {
+        return Order.builder().orderId(orderId).status(status).sagaStatus(sagaStatus).build();
+    }
+
+    private static Message<String> message(String orderId, boolean redelivered) {
+        return MessageBuilder.withPayload(orderId)
+                .setHeader(AmqpHeaders.REDELIVERED, redelivered)
+                .setHeader(AmqpHeaders.MESSAGE_ID, "message-" + orderId)
+                .setHeader(AmqpHeaders.RECEIVED_ROUTING_KEY, "orderRoutingKey")
+                .build();
+    }
+
+    private static Message<String> retry(String orderId, int attempt) {
+        return MessageBuilder.fromMessage(message(orderId, false)).setHeader(Defines.MQ.RETRY_ATTEMPT_HEADER, attempt).build();
+    }
+}
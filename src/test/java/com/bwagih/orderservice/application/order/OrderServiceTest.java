@@ -0,0 +1,218 @@
+package com.bwagih.orderservice.application.order;
+
+import com.bwagih.orderservice.application.advice.InvalidRequestException;
+import com.bwagih.orderservice.application.order.admission.OrderAdmissionController;
+import com.bwagih.orderservice.application.order.stats.OrderStatistics;
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import com.bwagih.orderservice.domain.order.BulkSaveResult;
+import com.bwagih.orderservice.domain.order.Order;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.infrastructure.cache.OrderStatusCache;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrderRepository;
+import com.bwagih.orderservice.infrastructure.order.mongo.OrderStatusView;
+import com.bwagih.orderservice.infrastructure.subscription.OrderStatusSubscriptions;
+import com.bwagih.orderservice.presentation.dots.BatchOrderResponseDTO;
+import com.bwagih.orderservice.presentation.dots.BatchOrderResultDTO;
+import com.bwagih.orderservice.presentation.dots.OrderDTO;
+import com.bwagih.orderservice.presentation.dots.OrderStatusBatchDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceTest {
+
+    @Mock
+    private MongoOrderRepository orderRepository;
+    @Mock
+    private OrderStatusCache orderStatusCache;
+    @Mock
+    private OrderAdmissionController admissionController;
+    @Mock
+    private OrderStatistics orderStatistics;
+    @Mock
+    private OrderStatusSubscriptions orderStatusSubscriptions;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderService, "maxBatchSize", 3);
+        ReflectionTestUtils.setField(orderService, "maxPageSize", 10);
+        ReflectionTestUtils.setField(orderService, "maxStatusBatchSize", 3);
+    }
+
+    @Test
+    void createOrdersRejectsEmptyAndOversizedBatches() {
+        assertThatThrownBy(() -> orderService.createOrders(List.of())).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> orderService.createOrders(null)).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> orderService.createOrders(List.of(order("a"), order("b"), order("c"), order("d"))))
+                .isInstanceOf(InvalidRequestException.class);
+        verifyNoInteractions(admissionController, orderRepository);
+    }
+
+    @Test
+    void createOrdersReportsEachEntryAtItsRequestIndex() {
+        when(orderRepository.saveAllWithOutbox(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            assertThat(orders).allSatisfy(order -> {
+                assertThat(order.getStatus()).isEqualTo(OrderStatus.PENDING);
+                assertThat(order.getSagaStatus()).isEqualTo(SagaStatus.INITIATED);
+            });
+            Order saved = orders.get(0);
+            saved.setOrderId("id-0");
+            // the second order in the bulk write, request index 2, hit a duplicate key
+            return new BulkSaveResult(List.of(saved), Map.of(1, "duplicate key"));
+        });
+
+        BatchOrderResponseDTO response = orderService.createOrders(Arrays.asList(order(null), null, order("dup")));
+
+        assertThat(response.getAccepted()).isEqualTo(1);
+        assertThat(response.getRejected()).isEqualTo(2);
+        List<BatchOrderResultDTO> results = response.getResults();
+        assertThat(results).extracting(BatchOrderResultDTO::getIndex).containsExactly(0, 1, 2);
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(results.get(0).getOrderId()).isEqualTo("id-0");
+        assertThat(results.get(1).isSuccess()).isFalse();
+        assertThat(results.get(2).isSuccess()).isFalse();
+        assertThat(results.get(2).getOrderId()).isEqualTo("dup");
+        assertThat(results.get(2).getError()).isEqualTo("duplicate key");
+        verify(orderStatistics).recordCreated(1, OrderStatus.PENDING, SagaStatus.INITIATED);
+    }
+
+    @Test
+    void createOrdersReleasesAdmissionWhenTheWriteFails() {
+        when(orderRepository.saveAllWithOutbox(anyList())).thenThrow(new IllegalStateException("mongo down"));
+
+        assertThatThrownBy(() -> orderService.createOrders(List.of(order("a")))).isInstanceOf(IllegalStateException.class);
+
+        verify(admissionController).admit(anyInt());
+        verify(admissionController).release();
+    }
+
+    @Test
+    void cursorRoundTripsObjectIdAndClientSuppliedIds() {
+        for (String orderId : List.of(new ObjectId().toHexString(), "client/id+with=padding?", "é-ü-订单")) {
+            String cursor = OrderService.encodeCursor(orderId);
+            assertThat(cursor).doesNotContain("=", "+", "/");
+            assertThat(OrderService.decodeCursor(cursor)).isEqualTo(orderId);
+        }
+    }
+
+    @Test
+    void missingCursorStartsFromTheFirstPage() {
+        assertThat(OrderService.decodeCursor(null)).isNull();
+        assertThat(OrderService.decodeCursor("")).isNull();
+    }
+
+    @Test
+    void malformedCursorIsAnInvalidRequest() {
+        assertThatThrownBy(() -> OrderService.decodeCursor("not base64!"))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void pageLimitOutsideTheConfiguredRangeIsAnInvalidRequest() {
+        assertThatThrownBy(() -> orderService.getOrdersByStatus(OrderStatus.PENDING, null, 0))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> orderService.getOrdersByStatus(OrderStatus.PENDING, null, 11))
+                .isInstanceOf(InvalidRequestException.class);
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void requestedOrderIdsDropsDuplicatesAndNullsInRequestOrder() {
+        assertThat(OrderService.requestedOrderIds(Arrays.asList("b", null, "a", "b"), 4)).containsExactly("b", "a");
+    }
+
+    @Test
+    void requestedOrderIdsRejectsEmptyOversizedAndAllNullRequests() {
+        assertThatThrownBy(() -> OrderService.requestedOrderIds(null, 3)).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> OrderService.requestedOrderIds(List.of(), 3)).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> OrderService.requestedOrderIds(Arrays.asList(null, null), 3))
+                .isInstanceOf(InvalidRequestException.class);
+        // the limit applies to the request as sent, duplicates included
+        assertThatThrownBy(() -> OrderService.requestedOrderIds(List.of("a", "a", "a", "a"), 3))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void statusBatchKeepsRequestOrderAndListsMissingIds() {
+        OrderStatusView first = status("a");
+        OrderStatusView third = status("c");
+
+        OrderStatusBatchDTO batch = OrderService.statusBatch(new LinkedHashSet<>(List.of("c", "b", "a")),
+                Map.of("a", first, "c", third));
+
+        assertThat(batch.getStatuses()).containsExactly(Map.entry("c", third), Map.entry("a", first));
+        assertThat(batch.getMissing()).containsExactly("b");
+    }
+
+    @Test
+    void getOrderStatusesOnlyQueriesUncachedIds() {
+        OrderService service = withStatusCache(new OrderStatusCache(100, 60000, new SimpleMeterRegistry()));
+        OrderStatusView first = status("a");
+        OrderStatusView second = status("b");
+        when(orderRepository.findOrderStatusesByIds(Set.of("a"))).thenReturn(List.of(first));
+        when(orderRepository.findOrderStatusesByIds(Set.of("b", "c"))).thenReturn(List.of(second));
+
+        service.getOrderStatuses(List.of("a"));
+        OrderStatusBatchDTO batch = service.getOrderStatuses(List.of("a", "b", "c"));
+
+        assertThat(batch.getStatuses()).containsExactly(Map.entry("a", first), Map.entry("b", second));
+        assertThat(batch.getMissing()).containsExactly("c");
+        verify(orderRepository, times(1)).findOrderStatusesByIds(Set.of("a"));
+    }
+
+    @Test
+    void transitionDuringTheBatchLoadLeavesNothingStaleCached() {
+        OrderStatusCache cache = new OrderStatusCache(100, 60000, new SimpleMeterRegistry());
+        OrderService service = withStatusCache(cache);
+        OrderStatusView before = status("a");
+        OrderStatusView after = new OrderStatusView("a", "customer", "product", OrderStatus.PROCESSING);
+        when(orderRepository.findOrderStatusesByIds(Set.of("a")))
+                .thenAnswer(invocation -> {
+                    // the transition's eviction lands after the read, before the load completes
+                    cache.evict("a");
+                    return List.of(before);
+                })
+                .thenReturn(List.of(after));
+
+        assertThat(service.getOrderStatuses(List.of("a")).getStatuses()).containsEntry("a", before);
+        assertThat(service.getOrderStatuses(List.of("a")).getStatuses()).containsEntry("a", after);
+        verify(orderRepository, times(2)).findOrderStatusesByIds(Set.of("a"));
+    }
+
+    private OrderService withStatusCache(OrderStatusCache cache) {
+        OrderService service = new OrderService(orderRepository, cache, admissionController, orderStatistics, orderStatusSubscriptions);
+        ReflectionTestUtils.setField(service, "maxStatusBatchSize", 3);
+        return service;
+    }
+
+    private static OrderStatusView status(String orderId) {
+        return new OrderStatusView(orderId, "customer", "product", OrderStatus.PENDING);
+    }
+
+    private static OrderDTO order(String orderId) {
+        return OrderDTO.builder().orderId(orderId).customerName("customer").productName("product").quantity(1).build();
+    }
+}
@@ -0,0 +1,173 @@
+package com.bwagih.orderservice.application.order.admission;
+
+import com.bwagih.orderservice.application.advice.AdmissionRejectedException;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.domain.order.OrderStatusChangedEvent;
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.infrastructure.partition.OrderPartitioner;
+import com.bwagih.orderservice.shared.Defines;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderAdmissionControllerTest {
+
+    @Mock
+    private RabbitAdmin rabbitAdmin;
+    @Mock
+    private RabbitListenerEndpointRegistry listenerRegistry;
+    @Mock
+    private SimpleMessageListenerContainer container;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RabbitMqOrderConfig rabbitMqOrderConfig = new RabbitMqOrderConfig();
+
+    @BeforeEach
+    void setUp() {
+        rabbitMqOrderConfig.setQueue("orderQueue");
+        rabbitMqOrderConfig.setRoutingKey("orderRoutingKey");
+    }
+
+    // refill rates are kept far below the test's own pace, so timing never lets an extra order through
+    @Test
+    void tokenBucketAdmitsTheBurstThenSheds() {
+        OrderAdmissionController controller = controller(10, 5, 0.01);
+
+        for (int i = 0; i < 5; i++) {
+            controller.admit(1);
+            controller.release();
+        }
+        assertThatThrownBy(() -> controller.admit(1))
+                .isInstanceOfSatisfying(AdmissionRejectedException.class,
+                        ex -> assertThat(ex.getRetryAfterSeconds()).isGreaterThanOrEqualTo(1));
+        assertThat(rejected("rate")).isEqualTo(1);
+        assertThat(meterRegistry.get("order.admission.admitted").counter().count()).isEqualTo(5);
+    }
+
+    @Test
+    void rateRejectionGivesTheConcurrencyPermitBack() {
+        OrderAdmissionController controller = controller(1, 1, 0.01);
+        controller.admit(1);
+        controller.release();
+
+        assertThatThrownBy(() -> controller.admit(1)).isInstanceOf(AdmissionRejectedException.class);
+        assertThat(meterRegistry.get("order.admission.in-flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void concurrencyLimitShedsUntilAPermitIsReleased() {
+        OrderAdmissionController controller = controller(2, 100, 1000);
+        controller.admit(1);
+        controller.admit(1);
+
+        assertThatThrownBy(() -> controller.admit(1)).isInstanceOf(AdmissionRejectedException.class);
+        assertThat(rejected("concurrency")).isEqualTo(1);
+
+        controller.release();
+        assertThatCode(() -> controller.admit(1)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void queueBacklogShedsWhenItWouldTakeTooLongToDrain() {
+        OrderAdmissionController controller = controller(10, 100, 1000);
+        ReflectionTestUtils.setField(controller, "brokerAvailable", true);
+        when(rabbitAdmin.getQueueInfo("orderQueue")).thenReturn(new QueueInformation("orderQueue", 2000, 1));
+        runLocalConsumers(1);
+        // no completions yet: only the absolute depth limit applies
+        controller.sample();
+        assertThatCode(() -> controller.admit(1)).doesNotThrowAnyException();
+        controller.release();
+
+        for (int i = 0; i < 1000; i++) {
+            controller.onStatusChanged(new OrderStatusChangedEvent("order-" + i, OrderStatus.PROCESSING, null, OrderStatus.COMPLETED, null));
+        }
+        ReflectionTestUtils.setField(controller, "maxQueueDelayMs", 1L);
+        controller.sample();
+
+        assertThatThrownBy(() -> controller.admit(1))
+                .isInstanceOfSatisfying(AdmissionRejectedException.class,
+                        ex -> assertThat(ex.getRetryAfterSeconds()).isGreaterThanOrEqualTo(1));
+        assertThat(rejected("queue")).isEqualTo(1);
+    }
+
+    @Test
+    void drainRateCountsEveryConsumerOnTheQueue() {
+        OrderAdmissionController controller = controller(10, 100, 1000);
+        ReflectionTestUtils.setField(controller, "brokerAvailable", true);
+        // this instance runs 2 of the 8 consumers the broker reports
+        when(rabbitAdmin.getQueueInfo("orderQueue")).thenReturn(new QueueInformation("orderQueue", 2000, 8));
+        runLocalConsumers(2);
+
+        for (int i = 0; i < 100; i++) {
+            controller.onStatusChanged(new OrderStatusChangedEvent("order-" + i, OrderStatus.PROCESSING, null, OrderStatus.COMPLETED, null));
+        }
+        controller.sample();
+
+        double throughput = meterRegistry.get("order.admission.throughput").gauge().value();
+        assertThat(throughput).isPositive();
+        assertThat(meterRegistry.get("order.admission.drain-rate").gauge().value()).isCloseTo(4 * throughput, within(1e-6 * throughput));
+    }
+
+    @Test
+    void instanceWithoutConsumersOnlyAppliesTheDepthLimit() {
+        OrderAdmissionController controller = controller(10, 100, 1000);
+        ReflectionTestUtils.setField(controller, "brokerAvailable", true);
+        ReflectionTestUtils.setField(controller, "maxQueueDelayMs", 1L);
+        when(rabbitAdmin.getQueueInfo("orderQueue")).thenReturn(new QueueInformation("orderQueue", 2000, 4));
+
+        controller.onStatusChanged(new OrderStatusChangedEvent("order", OrderStatus.PROCESSING, null, OrderStatus.COMPLETED, null));
+        controller.sample();
+
+        assertThat(meterRegistry.get("order.admission.drain-rate").gauge().value()).isZero();
+        assertThatCode(() -> controller.admit(1)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void disabledControllerAdmitsEverything() {
+        OrderAdmissionController controller = controller(1, 1, 1);
+        ReflectionTestUtils.setField(controller, "enabled", false);
+
+        assertThatCode(() -> {
+            for (int i = 0; i < 10; i++) {
+                controller.admit(100);
+            }
+        }).doesNotThrowAnyException();
+    }
+
+    private OrderAdmissionController controller(int maxConcurrency, double burst, double maxRate) {
+        OrderPartitioner partitioner = new OrderPartitioner(rabbitMqOrderConfig, 0, OrderPartitioner.PartitionKey.CUSTOMER_NAME, new int[0]);
+        OrderAdmissionController controller = new OrderAdmissionController(rabbitAdmin, listenerRegistry, rabbitMqOrderConfig, partitioner,
+                meterRegistry, maxConcurrency, burst, maxRate);
+        ReflectionTestUtils.setField(controller, "enabled", true);
+        ReflectionTestUtils.setField(controller, "maxQueueDepth", 50000L);
+        ReflectionTestUtils.setField(controller, "maxQueueDelayMs", 15000L);
+        ReflectionTestUtils.setField(controller, "minRate", 1.0);
+        ReflectionTestUtils.setField(controller, "headroom", 1.2);
+        return controller;
+    }
+
+    private void runLocalConsumers(int consumers) {
+        when(listenerRegistry.getListenerContainer(Defines.MQ.ORDER_LISTENER_ID)).thenReturn(container);
+        when(container.isRunning()).thenReturn(true);
+        when(container.getActiveConsumerCount()).thenReturn(consumers);
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("order.admission.rejected").tag("reason", reason).counter().count();
+    }
+}
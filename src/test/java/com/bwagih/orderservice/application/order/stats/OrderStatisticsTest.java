@@ -0,0 +1,90 @@
+package com.bwagih.orderservice.application.order.stats;
+
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrderStatsRepository;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrderStatsRepository.StoredCounts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatisticsTest {
+
+    private static final String PENDING = MongoOrderStatsRepository.statusKey(OrderStatus.PENDING);
+
+    @Mock
+    private MongoOrderStatsRepository statsRepository;
+
+    @InjectMocks
+    private OrderStatistics orderStatistics;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderStatistics, "reconcileOnStartup", true);
+        ReflectionTestUtils.setField(orderStatistics, "reconcileLeaseMs", 600000L);
+    }
+
+    @Test
+    void reconcileWithoutLeaseOnlyCheckpoints() {
+        when(statsRepository.acquireReconcileLease(any(Duration.class))).thenReturn(false);
+        when(statsRepository.load()).thenReturn(new StoredCounts(3, Map.of(PENDING, 7L)));
+        when(statsRepository.increment(eq(3L), anyMap())).thenReturn(Optional.of(new StoredCounts(3, Map.of(PENDING, 7L))));
+
+        orderStatistics.reconcile();
+
+        verify(statsRepository, never()).countOrders();
+        verify(statsRepository, never()).replace(anyLong(), anyMap());
+        assertThat(orderStatistics.snapshot().getStatus()).containsEntry(OrderStatus.PENDING, 7L);
+    }
+
+    @Test
+    void reconcileReplacesUnderTheNextVersion() {
+        when(statsRepository.acquireReconcileLease(any(Duration.class))).thenReturn(true);
+        when(statsRepository.load()).thenReturn(new StoredCounts(3, Map.of(PENDING, 9L)));
+        when(statsRepository.countOrders()).thenReturn(Map.of(PENDING, 7L));
+        when(statsRepository.replace(3L, Map.of(PENDING, 7L))).thenReturn(true);
+
+        orderStatistics.reconcile();
+        orderStatistics.recordCreated(2, OrderStatus.PENDING, SagaStatus.INITIATED);
+        when(statsRepository.increment(eq(4L), anyMap())).thenReturn(Optional.of(new StoredCounts(4, Map.of(PENDING, 9L))));
+        orderStatistics.checkpoint();
+
+        verify(statsRepository).increment(4L, Map.of(PENDING, 2L, MongoOrderStatsRepository.sagaStatusKey(SagaStatus.INITIATED), 2L));
+        assertThat(orderStatistics.snapshot().getStatus()).containsEntry(OrderStatus.PENDING, 9L);
+    }
+
+    @Test
+    void checkpointAgainstRebuiltSummaryDropsUnflushedDeltas() {
+        when(statsRepository.load()).thenReturn(new StoredCounts(1, Map.of()), new StoredCounts(2, Map.of(PENDING, 5L)));
+        when(statsRepository.increment(eq(1L), anyMap())).thenReturn(Optional.empty());
+
+        orderStatistics.recordCreated(4, OrderStatus.PENDING, SagaStatus.INITIATED);
+        orderStatistics.checkpoint();
+
+        // the rebuild already counted the four orders
+        assertThat(orderStatistics.snapshot().getStatus()).containsEntry(OrderStatus.PENDING, 5L);
+
+        orderStatistics.recordCreated(1, OrderStatus.PENDING, SagaStatus.INITIATED);
+        when(statsRepository.increment(eq(2L), anyMap())).thenReturn(Optional.of(new StoredCounts(2, Map.of(PENDING, 6L))));
+        orderStatistics.checkpoint();
+
+        verify(statsRepository).increment(2L, Map.of(PENDING, 1L, MongoOrderStatsRepository.sagaStatusKey(SagaStatus.INITIATED), 1L));
+        assertThat(orderStatistics.snapshot().getStatus()).containsEntry(OrderStatus.PENDING, 6L);
+    }
+}
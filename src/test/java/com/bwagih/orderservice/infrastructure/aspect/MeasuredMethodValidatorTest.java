@@ -0,0 +1,65 @@
+package com.bwagih.orderservice.infrastructure.aspect;
+
+import com.bwagih.orderservice.shared.annotations.MeasureExecutionTime;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanInitializationException;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MeasuredMethodValidatorTest {
+
+    private final MeasuredMethodValidator validator = new MeasuredMethodValidator();
+
+    @Test
+    void acceptsDefaultAndNamedTimers() {
+        assertThatCode(() -> {
+            validator.postProcessAfterInitialization(new Plain(), "plain");
+            validator.postProcessAfterInitialization(new Tagged(), "tagged");
+            validator.postProcessAfterInitialization(new SameKeys(), "sameKeys");
+        }).doesNotThrowAnyException();
+    }
+
+    @Test
+    void rejectsExtraTagsOnTheDefaultName() {
+        assertThatThrownBy(() -> validator.postProcessAfterInitialization(new Unnamed(), "unnamed"))
+                .isInstanceOf(BeanInitializationException.class);
+    }
+
+    @Test
+    void rejectsDifferentTagKeysUnderOneName() {
+        validator.postProcessAfterInitialization(new Tagged(), "tagged");
+        assertThatThrownBy(() -> validator.postProcessAfterInitialization(new OtherKeys(), "otherKeys"))
+                .isInstanceOf(BeanInitializationException.class);
+    }
+
+    static class Plain {
+        @MeasureExecutionTime
+        void run() {
+        }
+    }
+
+    static class Tagged {
+        @MeasureExecutionTime(value = "order.publish", extraTags = "queue=orders")
+        void run() {
+        }
+    }
+
+    static class SameKeys {
+        @MeasureExecutionTime(value = "order.publish", extraTags = "queue=retry")
+        void run() {
+        }
+    }
+
+    static class OtherKeys {
+        @MeasureExecutionTime(value = "order.publish", extraTags = "exchange=orders")
+        void run() {
+        }
+    }
+
+    static class Unnamed {
+        @MeasureExecutionTime(extraTags = "queue=orders")
+        void run() {
+        }
+    }
+}
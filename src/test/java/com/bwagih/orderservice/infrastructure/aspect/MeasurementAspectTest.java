@@ -0,0 +1,59 @@
+package com.bwagih.orderservice.infrastructure.aspect;
+
+import com.bwagih.orderservice.shared.Defines;
+import com.bwagih.orderservice.shared.annotations.MeasureExecutionTime;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.EmbeddedValueResolver;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.expression.StandardBeanExpressionResolver;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MeasurementAspectTest {
+
+    private final MeasurementAspect aspect = new MeasurementAspect(new SimpleMeterRegistry(), new double[0], new long[0], 1000);
+
+    @BeforeEach
+    void setUp() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", Map.of("order.processing.delay-ms", "2000")));
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setBeanExpressionResolver(new StandardBeanExpressionResolver());
+        beanFactory.addEmbeddedValueResolver(environment::resolvePlaceholders);
+        aspect.setEmbeddedValueResolver(new EmbeddedValueResolver(beanFactory));
+    }
+
+    @Test
+    void sagaListenersAreOnlySlowBeyondTheProcessingDelay() throws NoSuchMethodException {
+        Method method = Listeners.class.getDeclaredMethod("saga");
+
+        assertThat(aspect.slowThresholdNanos(method, method.getAnnotation(MeasureExecutionTime.class)))
+                .isEqualTo(TimeUnit.MILLISECONDS.toNanos(3000));
+    }
+
+    @Test
+    void methodsWithoutAThresholdUseTheConfiguredOne() throws NoSuchMethodException {
+        Method method = Listeners.class.getDeclaredMethod("plain");
+
+        assertThat(aspect.slowThresholdNanos(method, method.getAnnotation(MeasureExecutionTime.class)))
+                .isEqualTo(TimeUnit.MILLISECONDS.toNanos(1000));
+    }
+
+    static class Listeners {
+        @MeasureExecutionTime(slowThresholdMs = Defines.Measurement.SAGA_SLOW_THRESHOLD_MS)
+        void saga() {
+        }
+
+        @MeasureExecutionTime
+        void plain() {
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.bwagih.orderservice.infrastructure.autoscale;
+
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.shared.Defines;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ConsumerAutoscalerTest {
+
+    private static final String QUEUE = "orders";
+
+    @Mock
+    private RabbitListenerEndpointRegistry listenerRegistry;
+    @Mock
+    private RabbitAdmin rabbitAdmin;
+    @Mock
+    private RabbitMqOrderConfig rabbitMqOrderConfig;
+    @Mock
+    private SimpleMessageListenerContainer container;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConsumerAutoscaler autoscaler;
+
+    @BeforeEach
+    void setUp() {
+        autoscaler = new ConsumerAutoscaler(listenerRegistry, rabbitAdmin, rabbitMqOrderConfig, meterRegistry, 2, 250);
+        ReflectionTestUtils.setField(autoscaler, "minConsumers", 2);
+        ReflectionTestUtils.setField(autoscaler, "maxConsumers", 10);
+        ReflectionTestUtils.setField(autoscaler, "scaleUpDepth", 1000L);
+        ReflectionTestUtils.setField(autoscaler, "scaleDownDepth", 100L);
+        ReflectionTestUtils.setField(autoscaler, "latencyTargetMs", 500.0);
+        ReflectionTestUtils.setField(autoscaler, "lowUtilization", 0.3);
+        ReflectionTestUtils.setField(autoscaler, "scaleUpTicks", 2);
+        ReflectionTestUtils.setField(autoscaler, "scaleDownTicks", 6);
+        ReflectionTestUtils.setField(autoscaler, "cooldownMs", 10000L);
+        ReflectionTestUtils.setField(autoscaler, "processingDelayMs", 5000L);
+
+        when(rabbitMqOrderConfig.getQueue()).thenReturn(QUEUE);
+        when(rabbitAdmin.getQueueInfo(QUEUE)).thenReturn(new QueueInformation(QUEUE, 5000, 2));
+        when(container.isRunning()).thenReturn(true);
+    }
+
+    @Test
+    void backlogAddsConsumersWhenOnlyTheSagaDelayMakesSagasSlow() {
+        useListener(Defines.MQ.ORDER_LISTENER_ID);
+        Timer timer = timer(Defines.MQ.ORDER_LISTENER_CLASS, Defines.MQ.ORDER_LISTENER_METHOD);
+
+        for (int tick = 0; tick < 2; tick++) {
+            timer.record(Duration.ofMillis(5100));
+            autoscaler.adjust();
+        }
+
+        assertThat(autoscaler.getState().getLatencyMs()).isEqualTo(100.0);
+        assertThat(autoscaler.getState().getLastAction()).isEqualTo(AutoscalerAction.SCALE_UP);
+        assertThat(autoscaler.getState().getConsumers()).isEqualTo(3);
+    }
+
+    @Test
+    void batchModeReadsTheBatchListenerTimer() {
+        ReflectionTestUtils.setField(autoscaler, "minConsumers", 1);
+        useListener(Defines.MQ.ORDER_BATCH_LISTENER_ID);
+        Timer single = timer(Defines.MQ.ORDER_LISTENER_CLASS, Defines.MQ.ORDER_LISTENER_METHOD);
+        Timer batch = timer(Defines.MQ.ORDER_BATCH_LISTENER_CLASS, Defines.MQ.ORDER_BATCH_LISTENER_METHOD);
+
+        for (int tick = 0; tick < 6; tick++) {
+            single.record(Duration.ofMillis(100));
+            batch.record(Duration.ofMillis(6000));
+            autoscaler.adjust();
+        }
+
+        assertThat(autoscaler.getState().getLatencyMs()).isEqualTo(1000.0);
+        assertThat(autoscaler.getState().getLastAction()).isEqualTo(AutoscalerAction.SCALE_DOWN);
+        assertThat(autoscaler.getState().getConsumers()).isEqualTo(1);
+    }
+
+    @Test
+    void prefetchIsNeverChangedOnRunningConsumers() {
+        ReflectionTestUtils.setField(autoscaler, "maxConsumers", 2);
+        useListener(Defines.MQ.ORDER_LISTENER_ID);
+        Timer timer = timer(Defines.MQ.ORDER_LISTENER_CLASS, Defines.MQ.ORDER_LISTENER_METHOD);
+
+        // a backlog with every consumer already running has nothing left to scale
+        for (int tick = 0; tick < 4; tick++) {
+            timer.record(Duration.ofMillis(5100));
+            autoscaler.adjust();
+        }
+
+        assertThat(autoscaler.getState().getLastAction()).isEqualTo(AutoscalerAction.NONE);
+        assertThat(autoscaler.getState().getPrefetch()).isEqualTo(250);
+        verify(container, never()).setPrefetchCount(anyInt());
+    }
+
+    private void useListener(String listenerId) {
+        when(container.getListenerId()).thenReturn(listenerId);
+        when(listenerRegistry.getListenerContainer(listenerId)).thenReturn(container);
+    }
+
+    private Timer timer(String className, String method) {
+        return Timer.builder("method.execution")
+                .tags("class", className, "method", method, "outcome", "SUCCESS", "exception", "none")
+                .register(meterRegistry);
+    }
+}
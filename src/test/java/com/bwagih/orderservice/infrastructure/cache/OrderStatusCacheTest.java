@@ -0,0 +1,77 @@
+package com.bwagih.orderservice.infrastructure.cache;
+
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.infrastructure.order.mongo.OrderStatusView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderStatusCacheTest {
+
+    private final OrderStatusCache cache = new OrderStatusCache(100, 60000, new SimpleMeterRegistry());
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void evictionDuringAnAsyncLoadIsNotOverwrittenByTheLoad() {
+        CompletableFuture<OrderStatusView> pending = new CompletableFuture<>();
+        CompletableFuture<OrderStatusView> read = cache.getAsync("a", id -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+
+        cache.evict("a");
+        pending.complete(status("a", OrderStatus.PENDING));
+
+        assertThat(read.join().status()).isEqualTo(OrderStatus.PENDING);
+        assertThat(cache.getAsync("a", id -> load(id, OrderStatus.PROCESSING)).join().status())
+                .isEqualTo(OrderStatus.PROCESSING);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evictionDuringAnAsyncBulkLoadOnlyDropsTheEvictedId() {
+        CompletableFuture<Map<String, OrderStatusView>> pending = new CompletableFuture<>();
+        CompletableFuture<Map<String, OrderStatusView>> read = cache.getAllAsync(Set.of("a", "b"), ids -> pending);
+
+        cache.evict("a");
+        pending.complete(Map.of("a", status("a", OrderStatus.PENDING), "b", status("b", OrderStatus.PENDING)));
+
+        assertThat(read.join()).containsOnlyKeys("a", "b");
+        Map<String, OrderStatusView> reread = cache.getAllAsync(Set.of("a", "b"), ids -> {
+            assertThat(ids).containsExactly("a");
+            return CompletableFuture.completedFuture(Map.of("a", status("a", OrderStatus.PROCESSING)));
+        }).join();
+        assertThat(reread.get("a").status()).isEqualTo(OrderStatus.PROCESSING);
+        assertThat(reread.get("b").status()).isEqualTo(OrderStatus.PENDING);
+    }
+
+    @Test
+    void unknownOrdersAreNotCached() {
+        assertThat(cache.get("a", id -> {
+            loads.incrementAndGet();
+            return null;
+        })).isNull();
+        assertThat(cache.getAll(Set.of("a"), ids -> {
+            loads.incrementAndGet();
+            return Map.of();
+        })).isEmpty();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private CompletableFuture<OrderStatusView> load(String orderId, OrderStatus status) {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture(status(orderId, status));
+    }
+
+    private static OrderStatusView status(String orderId, OrderStatus status) {
+        return new OrderStatusView(orderId, "customer", "product", status);
+    }
+}
@@ -0,0 +1,106 @@
+package com.bwagih.orderservice.infrastructure.codec;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactOrderMessageConverterTest {
+
+    private final Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+    private final CompactOrderMessageConverter compact = new CompactOrderMessageConverter(json, true);
+    private final CompactOrderMessageConverter jsonOutbound = new CompactOrderMessageConverter(json, false);
+
+    @Test
+    void objectIdTravelsAsTwelveBytes() {
+        String orderId = new ObjectId().toHexString();
+
+        Message message = compact.toMessage(orderId, new MessageProperties());
+
+        assertThat(message.getMessageProperties().getContentType()).isEqualTo(CompactOrderMessageConverter.CONTENT_TYPE);
+        assertThat(message.getBody()).hasSize(13).startsWith(CompactOrderMessageConverter.FORMAT_OBJECT_ID);
+        assertThat(compact.fromMessage(message)).isEqualTo(orderId);
+    }
+
+    @Test
+    void uuidTravelsAsSixteenBytes() {
+        String orderId = UUID.randomUUID().toString();
+
+        Message message = compact.toMessage(orderId, new MessageProperties());
+
+        assertThat(message.getBody()).hasSize(17).startsWith(CompactOrderMessageConverter.FORMAT_UUID);
+        assertThat(compact.fromMessage(message)).isEqualTo(orderId);
+    }
+
+    @Test
+    void otherIdsTravelAsUtf8() {
+        // upper-case forms are not canonical, packing them would change the id on the way back
+        List<String> orderIds = List.of("order-42", "é-ü-订单", "", new ObjectId().toHexString().toUpperCase(),
+                UUID.randomUUID().toString().toUpperCase());
+        for (String orderId : orderIds) {
+            Message message = compact.toMessage(orderId, new MessageProperties());
+
+            assertThat(message.getBody()[0]).isEqualTo(CompactOrderMessageConverter.FORMAT_UTF8);
+            assertThat(compact.fromMessage(message)).isEqualTo(orderId);
+        }
+    }
+
+    @Test
+    void nonIdPayloadsGoThroughTheDelegate() {
+        Message message = compact.toMessage(Map.of("orderId", "a"), new MessageProperties());
+
+        assertThat(message.getMessageProperties().getContentType()).isEqualTo(MessageProperties.CONTENT_TYPE_JSON);
+        assertThat(compact.fromMessage(message)).isEqualTo(Map.of("orderId", "a"));
+    }
+
+    @Test
+    void jsonOutboundStillDecodesCompactMessages() {
+        String orderId = new ObjectId().toHexString();
+
+        Message sent = jsonOutbound.toMessage(orderId, new MessageProperties());
+        assertThat(sent.getMessageProperties().getContentType()).isEqualTo(MessageProperties.CONTENT_TYPE_JSON);
+        assertThat(jsonOutbound.fromMessage(sent)).isEqualTo(orderId);
+
+        // a compact message from an instance that was switched over already
+        assertThat(jsonOutbound.fromMessage(compact.toMessage(orderId, new MessageProperties()))).isEqualTo(orderId);
+        // and JSON from an older producer reaches a compact consumer unchanged
+        assertThat(compact.fromMessage(json.toMessage(orderId, new MessageProperties()))).isEqualTo(orderId);
+    }
+
+    @Test
+    void malformedCompactBodiesAreRejected() {
+        assertThatThrownBy(() -> CompactOrderMessageConverter.decode(new byte[0]))
+                .isInstanceOf(MessageConversionException.class);
+        assertThatThrownBy(() -> CompactOrderMessageConverter.decode(new byte[]{42, 1, 2}))
+                .isInstanceOf(MessageConversionException.class);
+    }
+
+    @Test
+    void truncatedIdsAreRejected() {
+        byte[] objectId = compact.toMessage(new ObjectId().toHexString(), new MessageProperties()).getBody();
+        byte[] uuid = compact.toMessage(UUID.randomUUID().toString(), new MessageProperties()).getBody();
+
+        for (byte[] body : List.of(Arrays.copyOf(objectId, 8), Arrays.copyOf(objectId, 1), Arrays.copyOf(objectId, 14),
+                Arrays.copyOf(uuid, 9), Arrays.copyOf(uuid, 16), Arrays.copyOf(uuid, 18))) {
+            Message message = new Message(body, compactProperties());
+
+            assertThatThrownBy(() -> compact.fromMessage(message)).isInstanceOf(MessageConversionException.class);
+        }
+    }
+
+    private static MessageProperties compactProperties() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(CompactOrderMessageConverter.CONTENT_TYPE);
+        return properties;
+    }
+}
@@ -0,0 +1,77 @@
+package com.bwagih.orderservice.infrastructure.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessedMessageStoreTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void memoryOnlyLookupIsNotCountedAsAMiss() {
+        ProcessedMessageStore store = new ProcessedMessageStore(mongoTemplate, meterRegistry, 100, 60000, 60000);
+
+        assertThat(store.isProcessed("order", "message", 0, false)).isFalse();
+        verifyNoInteractions(mongoTemplate);
+        assertThat(lookups("miss")).isZero();
+
+        store.markProcessed("order", "message", 0);
+        assertThat(store.isProcessed("order", "message", 0, false)).isTrue();
+        assertThat(lookups("memory")).isEqualTo(1);
+    }
+
+    @Test
+    void storeLookupCountsHitsAndMisses() {
+        ProcessedMessageStore store = new ProcessedMessageStore(mongoTemplate, meterRegistry, 100, 60000, 60000);
+        when(mongoTemplate.exists(any(Query.class), eq(ProcessedMessageStore.COLLECTION))).thenReturn(false, true);
+
+        assertThat(store.isProcessed("order", "first", 0, true)).isFalse();
+        assertThat(store.isProcessed("order", "second", 0, true)).isTrue();
+        // the store hit is remembered in memory
+        assertThat(store.isProcessed("order", "second", 0, true)).isTrue();
+
+        assertThat(lookups("miss")).isEqualTo(1);
+        assertThat(lookups("store")).isEqualTo(1);
+        assertThat(lookups("memory")).isEqualTo(1);
+    }
+
+    @Test
+    void retryOfAProcessedMessageIsNotADuplicate() {
+        ProcessedMessageStore store = new ProcessedMessageStore(mongoTemplate, meterRegistry, 100, 60000, 60000);
+
+        store.markProcessed("order", "message", 0);
+
+        assertThat(store.isProcessed("order", "message", 1, false)).isFalse();
+        store.markProcessed("order", "message", 1);
+        assertThat(store.isProcessed("order", "message", 1, false)).isTrue();
+    }
+
+    @Test
+    void storeSizeIsCountedOncePerRefreshInterval() {
+        new ProcessedMessageStore(mongoTemplate, meterRegistry, 100, 60000, 60000);
+        when(mongoTemplate.estimatedCount(ProcessedMessageStore.COLLECTION)).thenReturn(42L);
+
+        for (int scrape = 0; scrape < 5; scrape++) {
+            assertThat(meterRegistry.get("order.dedup.store.size").gauge().value()).isEqualTo(42.0);
+        }
+        verify(mongoTemplate, times(1)).estimatedCount(ProcessedMessageStore.COLLECTION);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("order.dedup.lookups").tag("result", result).counter().count();
+    }
+}
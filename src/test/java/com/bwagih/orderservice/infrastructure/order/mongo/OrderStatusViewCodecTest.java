@@ -0,0 +1,67 @@
+package com.bwagih.orderservice.infrastructure.order.mongo;
+
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonInt32;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderStatusViewCodecTest {
+
+    @Test
+    void roundTripsObjectIdAndStringIds() {
+        String objectId = new ObjectId().toHexString();
+        OrderStatusView withObjectId = new OrderStatusView(objectId, "Ada", "Keyboard", OrderStatus.PROCESSING);
+        OrderStatusView withStringId = new OrderStatusView("order-42", "Ada", "Keyboard", OrderStatus.COMPLETED);
+
+        BsonDocument encoded = encode(withObjectId);
+        assertThat(encoded.get("_id")).isEqualTo(new BsonObjectId(new ObjectId(objectId)));
+        assertThat(decode(encoded)).isEqualTo(withObjectId);
+
+        encoded = encode(withStringId);
+        assertThat(encoded.get("_id")).isEqualTo(new BsonString("order-42"));
+        assertThat(decode(encoded)).isEqualTo(withStringId);
+    }
+
+    @Test
+    void missingFieldsDecodeAsNull() {
+        OrderStatusView empty = new OrderStatusView(null, null, null, null);
+
+        BsonDocument encoded = encode(empty);
+
+        assertThat(encoded).isEmpty();
+        assertThat(decode(encoded)).isEqualTo(empty);
+    }
+
+    @Test
+    void skipsUnprojectedFieldsAndUnexpectedTypes() {
+        BsonDocument document = new BsonDocument()
+                .append("_id", new BsonObjectId(new ObjectId("64b7f0c2a1b2c3d4e5f60718")))
+                .append("quantity", new BsonInt32(3))
+                .append("customerName", new BsonInt32(7))
+                .append("productName", new BsonString("Mouse"))
+                .append("status", new BsonString("FAILED"))
+                .append("sagaStatus", new BsonString("ROLLBACK"));
+
+        assertThat(decode(document))
+                .isEqualTo(new OrderStatusView("64b7f0c2a1b2c3d4e5f60718", null, "Mouse", OrderStatus.FAILED));
+    }
+
+    private static BsonDocument encode(OrderStatusView view) {
+        BsonDocument document = new BsonDocument();
+        OrderStatusViewCodec.INSTANCE.encode(new BsonDocumentWriter(document), view, EncoderContext.builder().build());
+        return document;
+    }
+
+    private static OrderStatusView decode(BsonDocument document) {
+        return OrderStatusViewCodec.INSTANCE.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+}
@@ -0,0 +1,111 @@
+package com.bwagih.orderservice.infrastructure.outbox;
+
+import com.bwagih.orderservice.application.order.OrderProcessor;
+import com.bwagih.orderservice.application.order.saga.OrderSaga;
+import com.bwagih.orderservice.domain.MessagePublisher;
+import com.bwagih.orderservice.domain.enums.SagaStatus;
+import com.bwagih.orderservice.domain.order.Order;
+import com.bwagih.orderservice.domain.order.OrderStatus;
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.infrastructure.idempotency.ProcessedMessageStore;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrder;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrderRepository;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOutboxEntry;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOutboxRepository;
+import com.bwagih.orderservice.infrastructure.partition.OrderPartitioner;
+import com.bwagih.orderservice.infrastructure.retry.OrderRetryScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private MongoOutboxRepository outboxRepository;
+    @Mock
+    private MessagePublisher messagePublisher;
+    @Mock
+    private RabbitMqOrderConfig rabbitMqOrderConfig;
+    @Mock
+    private OrderPartitioner orderPartitioner;
+    @Mock
+    private MongoOrderRepository orderRepository;
+    @Mock
+    private OrderSaga orderSaga;
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final ThreadPoolTaskExecutor sagaExecutor = new ThreadPoolTaskExecutor();
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        sagaExecutor.initialize();
+        relay = new OutboxRelay(outboxRepository, messagePublisher, rabbitMqOrderConfig, orderPartitioner, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "maxBatchSize", 500);
+        ReflectionTestUtils.setField(relay, "maxBatchesPerRun", 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sagaExecutor.shutdown();
+    }
+
+    @Test
+    void republishedOutboxEntryIsSkippedByTheDedupStore() {
+        MongoOrder order = MongoOrder.builder().orderId("order").outbox(MongoOutboxEntry.pending()).build();
+        when(outboxRepository.findPending(500)).thenReturn(List.of(order));
+        when(orderPartitioner.routingKeyFor(order)).thenReturn("orderRoutingKey");
+        // the first confirm is lost, so the entry stays pending and the next run relays it again
+        when(messagePublisher.publishAsync(any(), eq("orderRoutingKey"), eq("order"), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.failedFuture(new AmqpException("confirm timed out")),
+                        CompletableFuture.completedFuture(null));
+
+        relay.relay();
+        relay.relay();
+
+        ArgumentCaptor<String> messageIds = ArgumentCaptor.forClass(String.class);
+        verify(messagePublisher, times(2)).publishAsync(any(), any(), any(), messageIds.capture(), anyMap());
+        assertThat(messageIds.getAllValues()).containsOnly(order.getOutbox().getMessageId());
+
+        ProcessedMessageStore store = new ProcessedMessageStore(mongoTemplate, new SimpleMeterRegistry(), 100, 60000, 60000);
+        OrderProcessor processor = new OrderProcessor(orderRepository, rabbitMqOrderConfig, orderSaga, sagaExecutor,
+                mock(ApplicationEventPublisher.class), store, mock(OrderRetryScheduler.class));
+        Order claimed = Order.builder().orderId("order").status(OrderStatus.PENDING).sagaStatus(SagaStatus.INITIATED).build();
+        when(orderRepository.transition(eq("order"), anyCollection(), any(), any())).thenReturn(Optional.of(claimed));
+        when(orderSaga.run(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        for (String messageId : messageIds.getAllValues()) {
+            processor.processOrder("order", false, messageId, null, "orderRoutingKey").join();
+        }
+
+        // one saga: claimed once and completed once
+        verify(orderSaga, times(1)).run(any());
+        verify(orderRepository, times(2)).transition(eq("order"), anyCollection(), any(), any());
+    }
+}
@@ -0,0 +1,78 @@
+package com.bwagih.orderservice.infrastructure.partition;
+
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.infrastructure.order.mongo.MongoOrder;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderPartitionerTest {
+
+    private final RabbitMqOrderConfig config = config();
+
+    @Test
+    void singlePartitionKeepsTheOrderRoutingKey() {
+        OrderPartitioner partitioner = new OrderPartitioner(config, 0, OrderPartitioner.PartitionKey.CUSTOMER_NAME, new int[0]);
+
+        assertThat(partitioner.isEnabled()).isFalse();
+        assertThat(partitioner.getPartitionCount()).isEqualTo(1);
+        assertThat(partitioner.routingKeyFor(order("alice", "book"))).isEqualTo("orderRoutingKey");
+    }
+
+    @Test
+    void ordersOfOneKeyShareAPartition() {
+        OrderPartitioner partitioner = new OrderPartitioner(config, 8, OrderPartitioner.PartitionKey.CUSTOMER_NAME, new int[0]);
+
+        String routingKey = partitioner.routingKeyFor(order("alice", "book"));
+        assertThat(partitioner.routingKeyFor(order("alice", "pen"))).isEqualTo(routingKey);
+        assertThat(routingKey).isEqualTo("orderRoutingKey." + partitioner.partitionOf("alice"));
+    }
+
+    @Test
+    void partitionKeySelectsTheHashedField() {
+        OrderPartitioner partitioner = new OrderPartitioner(config, 8, OrderPartitioner.PartitionKey.PRODUCT_NAME, new int[0]);
+
+        assertThat(partitioner.routingKeyFor(order("alice", "book")))
+                .isEqualTo(partitioner.routingKey(partitioner.partitionOf("book")));
+    }
+
+    @Test
+    void partitionsStayInRangeAndSpreadKeys() {
+        OrderPartitioner partitioner = new OrderPartitioner(config, 8, OrderPartitioner.PartitionKey.ORDER_ID, new int[0]);
+
+        int[] hits = new int[8];
+        IntStream.range(0, 8000).forEach(i -> hits[partitioner.partitionOf("customer-" + i)]++);
+        assertThat(IntStream.of(hits).boxed()).allSatisfy(count -> assertThat(count).isBetween(500, 1500));
+        // a missing key and negative hash codes still land in range
+        assertThat(partitioner.partitionOf(null)).isZero();
+        assertThat(partitioner.partitionOf("polygenelubricants")).isBetween(0, 7);
+    }
+
+    @Test
+    void claimsEveryPartitionUnlessConfigured() {
+        assertThat(new OrderPartitioner(config, 3, OrderPartitioner.PartitionKey.CUSTOMER_NAME, new int[0]).claimedQueues())
+                .containsExactly("orderQueue.0", "orderQueue.1", "orderQueue.2");
+        assertThat(new OrderPartitioner(config, 3, OrderPartitioner.PartitionKey.CUSTOMER_NAME, new int[]{2}).claimedQueues())
+                .containsExactly("orderQueue.2");
+    }
+
+    @Test
+    void rejectsClaimsOutsideThePartitionCount() {
+        assertThatThrownBy(() -> new OrderPartitioner(config, 3, OrderPartitioner.PartitionKey.CUSTOMER_NAME, new int[]{3}))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static RabbitMqOrderConfig config() {
+        RabbitMqOrderConfig config = new RabbitMqOrderConfig();
+        config.setQueue("orderQueue");
+        config.setRoutingKey("orderRoutingKey");
+        return config;
+    }
+
+    private static MongoOrder order(String customerName, String productName) {
+        return MongoOrder.builder().customerName(customerName).productName(productName).build();
+    }
+}
@@ -0,0 +1,74 @@
+package com.bwagih.orderservice.infrastructure.retry;
+
+import com.bwagih.orderservice.domain.MessagePublisher;
+import com.bwagih.orderservice.infrastructure.config.RabbitMQConfig;
+import com.bwagih.orderservice.infrastructure.config.RabbitMqOrderConfig;
+import com.bwagih.orderservice.infrastructure.partition.OrderPartitioner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.context.ApplicationContext;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OrderRetrySchedulerTest {
+
+    private final RabbitMqOrderConfig config = config();
+    private final OrderRetryTiers tiers = new OrderRetryTiers(config, new long[]{1000, 5000});
+    private final OrderPartitioner partitioner = new OrderPartitioner(config, 4, OrderPartitioner.PartitionKey.CUSTOMER_NAME, new int[0]);
+    private final MessagePublisher messagePublisher = mock(MessagePublisher.class);
+    private final OrderRetryScheduler scheduler = new OrderRetryScheduler(tiers, messagePublisher, config, new SimpleMeterRegistry());
+
+    @Test
+    void retriedOrdersDeadLetterBackToThePartitionTheyCameFrom() {
+        Declarables declarables = new RabbitMQConfig(mock(ApplicationContext.class), config, partitioner, tiers)
+                .orderRetryQueues(mock(RabbitAdmin.class), new DirectExchange("orderExchange"));
+        Map<String, Binding> bindings = declarables.getDeclarablesByType(Binding.class).stream()
+                .collect(Collectors.toMap(Binding::getRoutingKey, Function.identity()));
+        Map<String, Queue> queues = declarables.getDeclarablesByType(Queue.class).stream()
+                .collect(Collectors.toMap(Queue::getName, Function.identity()));
+
+        for (int partition = 0; partition < partitioner.getPartitionCount(); partition++) {
+            String receivedRoutingKey = partitioner.routingKey(partition);
+            for (int attempt = 0; attempt < tiers.size(); attempt++) {
+                assertThat(tierQueueOf(bindings, queues, scheduledRoutingKey(receivedRoutingKey, attempt))
+                        .getArguments()).containsEntry("x-dead-letter-routing-key", receivedRoutingKey);
+            }
+        }
+        assertThat(tierQueueOf(bindings, queues, scheduledRoutingKey(null, 0)).getArguments())
+                .containsEntry("x-dead-letter-routing-key", "orderRoutingKey");
+    }
+
+    private String scheduledRoutingKey(String receivedRoutingKey, int attempt) {
+        clearInvocations(messagePublisher);
+        scheduler.schedule("order", "message", attempt, receivedRoutingKey);
+        ArgumentCaptor<String> routingKey = ArgumentCaptor.forClass(String.class);
+        verify(messagePublisher).publishAsync(eq("orderExchange"), routingKey.capture(), eq("order"), eq("message"), anyMap());
+        return routingKey.getValue();
+    }
+
+    private static Queue tierQueueOf(Map<String, Binding> bindings, Map<String, Queue> queues, String routingKey) {
+        assertThat(bindings).containsKey(routingKey);
+        return queues.get(bindings.get(routingKey).getDestination());
+    }
+
+    private static RabbitMqOrderConfig config() {
+        RabbitMqOrderConfig config = new RabbitMqOrderConfig();
+        config.setExchange("orderExchange");
+        config.setQueue("orderQueue");
+        config.setRoutingKey("orderRoutingKey");
+        return config;
+    }
+}